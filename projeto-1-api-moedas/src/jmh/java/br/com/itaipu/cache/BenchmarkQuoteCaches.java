@@ -0,0 +1,18 @@
+package br.com.itaipu.cache;
+
+import java.time.Duration;
+
+public final class BenchmarkQuoteCaches {
+
+    private BenchmarkQuoteCaches() {
+    }
+
+    public static QuoteCache create(Duration ttl) {
+        QuoteCache cache = new QuoteCache();
+        cache.ttl = ttl;
+        cache.staleTtl = Duration.ZERO;
+        cache.maxSize = 1000;
+        cache.init();
+        return cache;
+    }
+}
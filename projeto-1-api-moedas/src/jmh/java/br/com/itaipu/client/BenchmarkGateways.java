@@ -0,0 +1,22 @@
+package br.com.itaipu.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+
+public final class BenchmarkGateways {
+
+    private BenchmarkGateways() {
+    }
+
+    // Sem CDI as anotações de tolerância a falhas não se aplicam: mede apenas o código do gateway
+    public static AwesomeApiGateway create(AwesomeApiClient client) {
+        AwesomeApiGateway gateway = new AwesomeApiGateway();
+        gateway.awesomeApiClient = client;
+        gateway.meterRegistry = new SimpleMeterRegistry();
+        gateway.hedgeEnabled = false;
+        gateway.hedgeDelay = Duration.ofMillis(200);
+        gateway.lastKnownMaxSize = 1000;
+        return gateway;
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.itaipu.client;
+
+import br.com.itaipu.model.CurrencyQuote;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stub que bloqueia a thread chamadora por {@code delayMillis} antes de responder,
+ * simulando um upstream lento.
+ */
+public class SlowAwesomeApiClient extends StubAwesomeApiClient {
+
+    private final long delayNanos;
+
+    public SlowAwesomeApiClient(long delayMillis) {
+        this.delayNanos = delayMillis * 1_000_000;
+    }
+
+    @Override
+    public List<CurrencyQuote> getQuote(String from, String to) {
+        LockSupport.parkNanos(delayNanos);
+        return super.getQuote(from, to);
+    }
+
+    @Override
+    public Map<String, CurrencyQuote> getLastQuotes(String pairs) {
+        LockSupport.parkNanos(delayNanos);
+        return super.getLastQuotes(pairs);
+    }
+}
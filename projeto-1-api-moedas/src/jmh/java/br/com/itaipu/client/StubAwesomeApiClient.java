@@ -0,0 +1,59 @@
+package br.com.itaipu.client;
+
+import br.com.itaipu.model.CurrencyQuote;
+import io.smallrye.mutiny.Uni;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cliente em processo que responde cotações fixas, sem rede, para os benchmarks.
+ */
+public class StubAwesomeApiClient implements AwesomeApiClient {
+
+    @Override
+    public List<CurrencyQuote> getQuote(String from, String to) {
+        return List.of(quote(from, to));
+    }
+
+    @Override
+    public Map<String, CurrencyQuote> getLastQuotes(String pairs) {
+        Map<String, CurrencyQuote> quotes = new HashMap<>();
+        for (String pair : pairs.split(",")) {
+            String[] codes = pair.split("-");
+            quotes.put(codes[0] + codes[1], quote(codes[0], codes[1]));
+        }
+        return quotes;
+    }
+
+    @Override
+    public Uni<List<CurrencyQuote>> getQuoteAsync(String from, String to) {
+        return Uni.createFrom().item(getQuote(from, to));
+    }
+
+    @Override
+    public Uni<Map<String, CurrencyQuote>> getLastQuotesAsync(String pairs) {
+        return Uni.createFrom().item(getLastQuotes(pairs));
+    }
+
+    public static CurrencyQuote quote(String from, String to) {
+        return new CurrencyQuote(
+                from,
+                to,
+                from + "/" + to,
+                new BigDecimal("5.4321"),
+                new BigDecimal("5.1234"),
+                new BigDecimal("0.0123"),
+                new BigDecimal("0.23"),
+                new BigDecimal("5.2345"),
+                new BigDecimal("5.2401"),
+                System.currentTimeMillis() / 1000,
+                null,
+                null,
+                null,
+                null
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.itaipu.model;
+
+import br.com.itaipu.client.StubAwesomeApiClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CurrencyQuoteSerializationBenchmark {
+
+    ObjectMapper objectMapper;
+    CurrencyQuote quote;
+    byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        quote = StubAwesomeApiClient.quote("USD", "BRL");
+        json = objectMapper.writeValueAsBytes(quote);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(quote);
+    }
+
+    @Benchmark
+    public CurrencyQuote deserialize() throws IOException {
+        return objectMapper.readValue(json, CurrencyQuote.class);
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.cache.BenchmarkQuoteCaches;
+import br.com.itaipu.client.BenchmarkGateways;
+import br.com.itaipu.client.StubAwesomeApiClient;
+import br.com.itaipu.history.QuoteHistory;
+import br.com.itaipu.model.CurrencyQuote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho quente de {@link CurrencyService} contra um cliente em processo.
+ * Com {@code cacheTtlMillis = 0} praticamente toda chamada passa pelo upstream
+ * (stub); com TTL positivo mede o caminho de cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CurrencyServiceBenchmark {
+
+    @Param({"0", "30000"})
+    long cacheTtlMillis;
+
+    @Param({"USD,EUR,GBP,JPY", "USD,EUR,GBP,JPY,CAD,AUD,CHF,CNY,BTC,ETH,ARS,CLP,MXN,COP,PEN,UYU,PYG,BOB,ZAR,INR"})
+    String currencies;
+
+    CurrencyService currencyService;
+
+    @Setup
+    public void setUp() {
+        currencyService = new CurrencyService();
+        currencyService.awesomeApiGateway = BenchmarkGateways.create(new StubAwesomeApiClient());
+        currencyService.quoteCache = BenchmarkQuoteCaches.create(Duration.ofMillis(cacheTtlMillis));
+        currencyService.hotPairTracker = new HotPairTracker();
+        currencyService.rateGraph = new RateGraph();
+        currencyService.quoteHistory = new QuoteHistory();
+        currencyService.batchMaxPairs = 10;
+        currencyService.maxConcurrency = 4;
+    }
+
+    @Benchmark
+    public CurrencyQuote getQuote() {
+        return currencyService.getQuote("USD", "BRL");
+    }
+
+    @Benchmark
+    public List<CurrencyQuote> getMultipleQuotes() {
+        return currencyService.getMultipleQuotes("BRL", currencies);
+    }
+}
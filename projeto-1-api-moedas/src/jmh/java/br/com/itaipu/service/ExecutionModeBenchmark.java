@@ -0,0 +1,86 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.cache.BenchmarkQuoteCaches;
+import br.com.itaipu.client.BenchmarkGateways;
+import br.com.itaipu.client.SlowAwesomeApiClient;
+import br.com.itaipu.history.QuoteHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rajadas de {@code requests} cotações simultâneas contra um upstream lento, despachadas
+ * para um pool fixo de threads de plataforma (como o pool de workers) ou para uma virtual
+ * thread por requisição (modo VIRTUAL_THREAD). O cache fica desligado e cada requisição
+ * usa um par diferente, para que todas esperem o upstream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExecutionModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    String executor;
+
+    @Param({"1000"})
+    int requests;
+
+    @Param({"50"})
+    long upstreamDelayMillis;
+
+    // Tamanho padrão do pool de workers do Quarkus: max(200, 8 x núcleos)
+    @Param({"200"})
+    int workerThreads;
+
+    CurrencyService currencyService;
+    ExecutorService executorService;
+
+    @Setup
+    public void setUp() {
+        currencyService = new CurrencyService();
+        currencyService.awesomeApiGateway = BenchmarkGateways.create(new SlowAwesomeApiClient(upstreamDelayMillis));
+        currencyService.quoteCache = BenchmarkQuoteCaches.create(Duration.ZERO);
+        currencyService.hotPairTracker = new HotPairTracker();
+        currencyService.rateGraph = new RateGraph();
+        currencyService.quoteHistory = new QuoteHistory();
+        currencyService.batchMaxPairs = 10;
+        currencyService.maxConcurrency = 4;
+        executorService = "virtual".equals(executor)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(workerThreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    // Cada operação é uma rajada completa: o resultado em ops/s vezes requests dá requisições/s
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            String to = "X" + i;
+            executorService.execute(() -> {
+                try {
+                    currencyService.getQuote("USD", to);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
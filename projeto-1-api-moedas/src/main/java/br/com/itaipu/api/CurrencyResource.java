@@ -1,15 +1,30 @@
 package br.com.itaipu.api;
 
+import br.com.itaipu.config.ExecutionMode;
+import br.com.itaipu.history.QuoteHistory;
 import br.com.itaipu.service.CurrencyService;
+import br.com.itaipu.service.QuoteStreamService;
+import br.com.itaipu.model.CacheStats;
 import br.com.itaipu.model.CurrencyQuote;
+import br.com.itaipu.model.HistoryStats;
+import br.com.itaipu.model.OhlcBar;
+import br.com.itaipu.model.QuotePoint;
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.resteasy.reactive.RestStreamElementType;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 @Path("/api/currency")
 @Produces(MediaType.APPLICATION_JSON)
@@ -20,32 +35,96 @@ public class CurrencyResource {
     @Inject
     CurrencyService currencyService;
 
+    @Inject
+    QuoteStreamService quoteStreamService;
+
+    @Inject
+    QuoteHistory quoteHistory;
+
+    @Inject
+    @VirtualThreads
+    ExecutorService virtualThreads;
+
+    @ConfigProperty(name = "currency.execution-mode", defaultValue = "blocking")
+    ExecutionMode executionMode;
+
     @GET
     @Path("/quote/{from}/{to}")
     @Operation(summary = "Obter cotação de moeda", description = "Retorna a cotação atual entre duas moedas")
-    public Response getCurrencyQuote(@PathParam("from") String from, @PathParam("to") String to) {
-        try {
-            CurrencyQuote quote = currencyService.getQuote(from.toUpperCase(), to.toUpperCase());
-            return Response.ok(quote).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .entity("Erro ao obter cotação: " + e.getMessage())
-                    .build();
-        }
+    public Uni<Response> getCurrencyQuote(@PathParam("from") String from, @PathParam("to") String to) {
+        String fromCode = from.toUpperCase();
+        String toCode = to.toUpperCase();
+        return execute(() -> currencyService.getQuote(fromCode, toCode),
+                () -> currencyService.getQuoteAsync(fromCode, toCode))
+                .map(quote -> Response.ok(quote).build())
+                .onFailure().recoverWithItem(e -> Response.status(errorStatus(e))
+                        .entity("Erro ao obter cotação: " + e.getMessage())
+                        .build());
     }
 
     @GET
     @Path("/quotes/{base}")
     @Operation(summary = "Obter cotações de uma moeda base", description = "Retorna cotações para múltiplas moedas")
-    public Response getMultipleQuotes(@PathParam("base") String base, @QueryParam("currencies") String currencies) {
-        try {
-            List<CurrencyQuote> quotes = currencyService.getMultipleQuotes(base.toUpperCase(), currencies);
-            return Response.ok(quotes).build();
-        } catch (Exception e) {
+    public Uni<Response> getMultipleQuotes(@PathParam("base") String base, @QueryParam("currencies") String currencies) {
+        String baseCode = base.toUpperCase();
+        return execute(() -> currencyService.getMultipleQuotes(baseCode, currencies),
+                () -> currencyService.getMultipleQuotesAsync(baseCode, currencies))
+                .map(quotes -> Response.ok(quotes).build())
+                .onFailure().recoverWithItem(e -> Response.status(errorStatus(e))
+                        .entity("Erro ao obter cotações: " + e.getMessage())
+                        .build());
+    }
+
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Stream de cotações", description = "Envia por Server-Sent Events as cotações dos pares informados (ex: USD-BRL,EUR-BRL) sempre que bid ou ask mudam")
+    public Multi<CurrencyQuote> streamQuotes(@QueryParam("pairs") String pairs) {
+        return quoteStreamService.stream(pairs);
+    }
+
+    @GET
+    @Path("/history/{from}/{to}")
+    @Operation(summary = "Histórico de cotações", description = "Retorna as cotações registradas entre start e end (Unix timestamp); por padrão, a última hora")
+    public Response getHistory(
+            @PathParam("from") String from,
+            @PathParam("to") String to,
+            @QueryParam("start") Long start,
+            @QueryParam("end") Long end,
+            @QueryParam("limit") @DefaultValue("1000") int limit) {
+        long rangeEnd = end != null ? end : System.currentTimeMillis() / 1000;
+        long rangeStart = start != null ? start : rangeEnd - 3600;
+        List<QuotePoint> points = quoteHistory.range(from.toUpperCase(), to.toUpperCase(), rangeStart, rangeEnd, limit);
+        return Response.ok(points).build();
+    }
+
+    @GET
+    @Path("/history/{from}/{to}/ohlc")
+    @Operation(summary = "Histórico agregado (OHLC)", description = "Retorna barras OHLC do bid agrupadas em intervalos de bucket segundos")
+    public Response getHistoryOhlc(
+            @PathParam("from") String from,
+            @PathParam("to") String to,
+            @QueryParam("start") Long start,
+            @QueryParam("end") Long end,
+            @QueryParam("bucket") @DefaultValue("60") long bucket) {
+        if (bucket <= 0) {
             return Response.status(Response.Status.BAD_REQUEST)
-                    .entity("Erro ao obter cotações: " + e.getMessage())
+                    .entity("Erro ao obter histórico: bucket deve ser positivo")
                     .build();
         }
+        long rangeEnd = end != null ? end : System.currentTimeMillis() / 1000;
+        long rangeStart = start != null ? start : rangeEnd - 3600;
+        List<OhlcBar> bars = quoteHistory.ohlc(from.toUpperCase(), to.toUpperCase(), rangeStart, rangeEnd, bucket);
+        return Response.ok(bars).build();
+    }
+
+    @GET
+    @Path("/history/stats")
+    @Operation(summary = "Estatísticas do histórico", description = "Retorna pares, pontos armazenados e memória reservada pelo histórico")
+    public Response getHistoryStats() {
+        HistoryStats stats = quoteHistory.stats();
+        return Response.ok(stats).build();
     }
 
     @GET
@@ -61,4 +140,39 @@ public class CurrencyResource {
                     .build();
         }
     }
-} 
\ No newline at end of file
+
+    @GET
+    @Path("/cache/stats")
+    @Operation(summary = "Estatísticas do cache de cotações", description = "Retorna contadores de hits, misses e evictions do cache")
+    public Response getCacheStats() {
+        CacheStats stats = currencyService.getCacheStats();
+        return Response.ok(stats).build();
+    }
+
+    /**
+     * Os métodos que retornam Uni rodam no event loop. No modo BLOCKING a chamada
+     * bloqueante é despachada para o pool de workers, preservando o comportamento
+     * original para comparação de throughput; no modo VIRTUAL_THREAD, para uma
+     * virtual thread, que libera a thread de plataforma enquanto espera o upstream.
+     */
+    private <T> Uni<T> execute(Supplier<T> blocking, Supplier<Uni<T>> reactive) {
+        return switch (executionMode) {
+            case REACTIVE -> reactive.get();
+            case VIRTUAL_THREAD -> Uni.createFrom().item(blocking).runSubscriptionOn(virtualThreads);
+            case BLOCKING -> Uni.createFrom().item(blocking).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+        };
+    }
+
+    // 503 para upstream indisponível (circuito aberto, timeout ou bulkhead cheio) sem cotação
+    // conhecida; erros do cliente (ex: 404 para par inexistente) mantêm o status
+    private Response.Status errorStatus(Throwable e) {
+        if (e instanceof ServiceUnavailableException) {
+            return Response.Status.SERVICE_UNAVAILABLE;
+        }
+        if (e instanceof WebApplicationException web && web.getResponse().getStatus() < 500) {
+            Response.Status status = Response.Status.fromStatusCode(web.getResponse().getStatus());
+            return status != null ? status : Response.Status.BAD_REQUEST;
+        }
+        return Response.Status.BAD_REQUEST;
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.itaipu.cache;
+
+import br.com.itaipu.model.CurrencyQuote;
+
+import java.time.Duration;
+
+record CachedQuote(
+    CurrencyQuote quote,
+    long fetchedAt      // Momento (epoch millis) em que a cotação foi obtida do upstream
+) {
+
+    long ageMillis() {
+        return System.currentTimeMillis() - fetchedAt;
+    }
+
+    boolean isExpired(Duration ttl) {
+        return ageMillis() > ttl.toMillis();
+    }
+}
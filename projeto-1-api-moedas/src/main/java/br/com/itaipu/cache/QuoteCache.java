@@ -0,0 +1,227 @@
+package br.com.itaipu.cache;
+
+import br.com.itaipu.model.CacheStats;
+import br.com.itaipu.model.CurrencyQuote;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache em memória de cotações por par (from, to), com TTL, tamanho máximo
+ * e coalescência de requisições concorrentes (single-flight): várias
+ * requisições simultâneas para o mesmo par compartilham uma única chamada
+ * ao upstream.
+ * <p>
+ * Depois do TTL, a entrada ainda é servida por {@code currency.cache.stale-ttl}
+ * (stale-while-revalidate) enquanto uma atualização roda em segundo plano.
+ * As entradas ficam em um cache Caffeine, que descarta as que saíram da janela
+ * stale e, acima de {@code currency.cache.max-size}, as menos usadas, sem
+ * percorrer o mapa a cada escrita.
+ */
+@ApplicationScoped
+public class QuoteCache {
+
+    private static final Logger LOG = Logger.getLogger(QuoteCache.class);
+
+    @ConfigProperty(name = "currency.cache.ttl", defaultValue = "PT30S")
+    Duration ttl;
+
+    @ConfigProperty(name = "currency.cache.stale-ttl", defaultValue = "PT5M")
+    Duration staleTtl;
+
+    @ConfigProperty(name = "currency.cache.max-size", defaultValue = "1000")
+    int maxSize;
+
+    private Cache<String, CachedQuote> entries;
+    private final Map<String, CompletableFuture<CurrencyQuote>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl.plus(staleTtl))
+                .removalListener((String key, CachedQuote value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+    }
+
+    public CurrencyQuote get(String from, String to, Supplier<CurrencyQuote> loader) {
+        String key = key(from, to);
+        CachedQuote cached = entries.getIfPresent(key);
+        if (cached != null && !cached.isExpired(ttl)) {
+            hits.increment();
+            return cached.quote();
+        }
+        if (cached != null && isServableStale(cached)) {
+            staleHits.increment();
+            refreshInBackground(key, loader);
+            return cached.quote();
+        }
+        misses.increment();
+
+        CompletableFuture<CurrencyQuote> future = new CompletableFuture<>();
+        CompletableFuture<CurrencyQuote> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            // Já existe uma chamada em andamento para o par: aguardar o mesmo resultado
+            return join(existing);
+        }
+
+        try {
+            CurrencyQuote quote = loader.get();
+            put(key, quote);
+            future.complete(quote);
+            return quote;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Variante não bloqueante de {@link #get}. Compartilha as chamadas em andamento
+     * com o caminho bloqueante, de modo que ambos coalescem no mesmo par.
+     */
+    public Uni<CurrencyQuote> getAsync(String from, String to, Supplier<Uni<CurrencyQuote>> loader) {
+        return Uni.createFrom().deferred(() -> {
+            String key = key(from, to);
+            CachedQuote cached = entries.getIfPresent(key);
+            if (cached != null && !cached.isExpired(ttl)) {
+                hits.increment();
+                return Uni.createFrom().item(cached.quote());
+            }
+            if (cached != null && isServableStale(cached)) {
+                staleHits.increment();
+                if (!inFlight.containsKey(key)) {
+                    load(key, loader).subscribe().with(
+                            quote -> { },
+                            e -> LOG.warnf("Falha ao atualizar cotação %s em segundo plano: %s", key, e.getMessage()));
+                }
+                return Uni.createFrom().item(cached.quote());
+            }
+            misses.increment();
+            return load(key, loader);
+        });
+    }
+
+    /**
+     * Retorna a cotação em cache se ainda estiver dentro do TTL, ou null caso contrário.
+     */
+    public CurrencyQuote getIfPresent(String from, String to) {
+        CachedQuote cached = entries.getIfPresent(key(from, to));
+        if (cached != null && !cached.isExpired(ttl)) {
+            hits.increment();
+            return cached.quote();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Indica se o par está ausente ou se já consumiu a fração {@code aheadRatio}
+     * do TTL, para que o refresher possa atualizá-lo antes de expirar.
+     */
+    public boolean needsRefresh(String from, String to, double aheadRatio) {
+        CachedQuote cached = entries.getIfPresent(key(from, to));
+        return cached == null || cached.ageMillis() >= ttl.toMillis() * aheadRatio;
+    }
+
+    public void put(String from, String to, CurrencyQuote quote) {
+        put(key(from, to), quote);
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), staleHits.sum(), misses.sum(), evictions.sum(), (int) entries.estimatedSize());
+    }
+
+    private Uni<CurrencyQuote> load(String key, Supplier<Uni<CurrencyQuote>> loader) {
+        CompletableFuture<CurrencyQuote> future = new CompletableFuture<>();
+        CompletableFuture<CurrencyQuote> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return Uni.createFrom().completionStage(existing);
+        }
+
+        return loader.get()
+                .invoke(quote -> put(key, quote))
+                .onTermination().invoke((quote, failure, cancelled) -> {
+                    inFlight.remove(key, future);
+                    if (failure != null) {
+                        future.completeExceptionally(failure);
+                    } else if (cancelled) {
+                        future.cancel(false);
+                    } else {
+                        future.complete(quote);
+                    }
+                });
+    }
+
+    private void refreshInBackground(String key, Supplier<CurrencyQuote> loader) {
+        CompletableFuture<CurrencyQuote> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+
+        Infrastructure.getDefaultWorkerPool().execute(() -> {
+            try {
+                CurrencyQuote quote = loader.get();
+                put(key, quote);
+                future.complete(quote);
+            } catch (RuntimeException e) {
+                LOG.warnf("Falha ao atualizar cotação %s em segundo plano: %s", key, e.getMessage());
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        });
+    }
+
+    private boolean isServableStale(CachedQuote cached) {
+        return !cached.isExpired(ttl.plus(staleTtl));
+    }
+
+    private void put(String key, CurrencyQuote quote) {
+        if (quote.wasFallback()) {
+            // A última cotação conhecida não conta como atualização do cache
+            return;
+        }
+        entries.put(key, new CachedQuote(quote, System.currentTimeMillis()));
+    }
+
+    private CurrencyQuote join(CompletableFuture<CurrencyQuote> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static String key(String from, String to) {
+        return from + "-" + to;
+    }
+}
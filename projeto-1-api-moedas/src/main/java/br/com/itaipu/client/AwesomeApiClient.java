@@ -1,14 +1,19 @@
 package br.com.itaipu.client;
 
 import br.com.itaipu.model.CurrencyQuote;
+import io.quarkus.rest.client.reactive.ClientExceptionMapper;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.ClientErrorException;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 import java.util.List;
+import java.util.Map;
 
 @Path("/json")
 @RegisterRestClient(configKey = "awesome-api")
@@ -18,4 +23,37 @@ public interface AwesomeApiClient {
     @Path("/{from}-{to}")
     @Produces(MediaType.APPLICATION_JSON)
     List<CurrencyQuote> getQuote(@PathParam("from") String from, @PathParam("to") String to);
-} 
\ No newline at end of file
+
+    /**
+     * Busca vários pares em uma única chamada. Os pares são separados por vírgula
+     * (ex: USD-BRL,EUR-BRL) e a resposta é indexada pelo código concatenado (ex: USDBRL).
+     */
+    @GET
+    @Path("/last/{pairs}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Map<String, CurrencyQuote> getLastQuotes(@PathParam("pairs") String pairs);
+
+    @GET
+    @Path("/{from}-{to}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Uni<List<CurrencyQuote>> getQuoteAsync(@PathParam("from") String from, @PathParam("to") String to);
+
+    @GET
+    @Path("/last/{pairs}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Uni<Map<String, CurrencyQuote>> getLastQuotesAsync(@PathParam("pairs") String pairs);
+
+    /**
+     * Respostas 4xx (par inexistente, requisição inválida) viram {@link ClientErrorException},
+     * que o {@link AwesomeApiGateway} não conta como falha do upstream. As demais seguem o
+     * mapeamento padrão do cliente.
+     */
+    @ClientExceptionMapper
+    static RuntimeException toException(Response response) {
+        int status = response.getStatus();
+        if (status >= 400 && status < 500) {
+            return new ClientErrorException("AwesomeAPI recusou a requisição (HTTP " + status + ")", status);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.itaipu.client;
+
+import br.com.itaipu.model.CurrencyQuote;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.faulttolerance.api.AsynchronousNonBlocking;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Acesso tolerante a falhas à AwesomeAPI: timeout, circuit breaker, bulkhead
+ * limitando as chamadas concorrentes e, opcionalmente, requisições hedged
+ * (uma segunda chamada disparada quando a primeira demora mais que
+ * {@code currency.upstream.hedge.delay}). Quando a chamada falha, responde com a
+ * última cotação conhecida do par, marcada como fallback.
+ * <p>
+ * Erros do cliente (4xx, como um par inexistente) não são falhas do upstream: não
+ * contam para abrir o circuito nem acionam o fallback, e chegam a quem chamou como
+ * {@link ClientErrorException}.
+ * <p>
+ * Os limites podem ser ajustados por configuração, por exemplo
+ * {@code br.com.itaipu.client.AwesomeApiGateway/getQuote/Timeout/value}.
+ */
+@ApplicationScoped
+public class AwesomeApiGateway {
+
+    // Chamadas em lote usam uma tag fixa para não criar uma série por combinação de pares
+    private static final String BATCH_TAG = "batch";
+
+    @Inject
+    @RestClient
+    AwesomeApiClient awesomeApiClient;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "currency.upstream.hedge.enabled", defaultValue = "false")
+    boolean hedgeEnabled;
+
+    @ConfigProperty(name = "currency.upstream.hedge.delay", defaultValue = "PT0.2S")
+    Duration hedgeDelay;
+
+    @ConfigProperty(name = "currency.upstream.last-known.max-size", defaultValue = "1000")
+    int lastKnownMaxSize;
+
+    private final Map<String, CurrencyQuote> lastKnown = new ConcurrentHashMap<>();
+
+    @Timeout(2000)
+    @CircuitBreaker(requestVolumeThreshold = 10, failureRatio = 0.5, delay = 10000, skipOn = ClientErrorException.class)
+    @Bulkhead(10)
+    @Fallback(fallbackMethod = "lastKnownQuote", skipOn = ClientErrorException.class)
+    public List<CurrencyQuote> getQuote(String from, String to) {
+        String pair = from + "-" + to;
+        List<CurrencyQuote> quotes = hedgeEnabled
+                ? timed(pair, () -> hedged(() -> awesomeApiClient.getQuoteAsync(from, to))).await().indefinitely()
+                : timedBlocking(pair, () -> awesomeApiClient.getQuote(from, to));
+        quotes.forEach(this::remember);
+        return quotes;
+    }
+
+    @Timeout(2000)
+    @CircuitBreaker(requestVolumeThreshold = 10, failureRatio = 0.5, delay = 10000, skipOn = ClientErrorException.class)
+    @Bulkhead(10)
+    @Fallback(fallbackMethod = "lastKnownQuotes", skipOn = ClientErrorException.class)
+    public Map<String, CurrencyQuote> getLastQuotes(String pairs) {
+        Map<String, CurrencyQuote> quotes = hedgeEnabled
+                ? timed(BATCH_TAG, () -> hedged(() -> awesomeApiClient.getLastQuotesAsync(pairs))).await().indefinitely()
+                : timedBlocking(BATCH_TAG, () -> awesomeApiClient.getLastQuotes(pairs));
+        quotes.values().forEach(this::remember);
+        return quotes;
+    }
+
+    @AsynchronousNonBlocking
+    @Timeout(2000)
+    @CircuitBreaker(requestVolumeThreshold = 10, failureRatio = 0.5, delay = 10000, skipOn = ClientErrorException.class)
+    @Bulkhead(value = 10, waitingTaskQueue = 50)
+    @Fallback(fallbackMethod = "lastKnownQuoteAsync", skipOn = ClientErrorException.class)
+    public Uni<List<CurrencyQuote>> getQuoteAsync(String from, String to) {
+        return timed(from + "-" + to, () -> hedged(() -> awesomeApiClient.getQuoteAsync(from, to)))
+                .invoke(quotes -> quotes.forEach(this::remember));
+    }
+
+    @AsynchronousNonBlocking
+    @Timeout(2000)
+    @CircuitBreaker(requestVolumeThreshold = 10, failureRatio = 0.5, delay = 10000, skipOn = ClientErrorException.class)
+    @Bulkhead(value = 10, waitingTaskQueue = 50)
+    @Fallback(fallbackMethod = "lastKnownQuotesAsync", skipOn = ClientErrorException.class)
+    public Uni<Map<String, CurrencyQuote>> getLastQuotesAsync(String pairs) {
+        return timed(BATCH_TAG, () -> hedged(() -> awesomeApiClient.getLastQuotesAsync(pairs)))
+                .invoke(quotes -> quotes.values().forEach(this::remember));
+    }
+
+    List<CurrencyQuote> lastKnownQuote(String from, String to, Throwable failure) {
+        CurrencyQuote quote = lastKnown.get(from + "-" + to);
+        if (quote == null) {
+            throw unavailable(failure);
+        }
+        return List.of(quote.asFallback());
+    }
+
+    Map<String, CurrencyQuote> lastKnownQuotes(String pairs, Throwable failure) {
+        Map<String, CurrencyQuote> quotes = new HashMap<>();
+        for (String pair : pairs.split(",")) {
+            CurrencyQuote quote = lastKnown.get(pair);
+            if (quote != null) {
+                // Mesma chave usada pela AwesomeAPI na resposta em lote (ex: USDBRL)
+                quotes.put(pair.replace("-", ""), quote.asFallback());
+            }
+        }
+        if (quotes.isEmpty()) {
+            throw unavailable(failure);
+        }
+        return quotes;
+    }
+
+    Uni<List<CurrencyQuote>> lastKnownQuoteAsync(String from, String to, Throwable failure) {
+        return Uni.createFrom().item(() -> lastKnownQuote(from, to, failure));
+    }
+
+    Uni<Map<String, CurrencyQuote>> lastKnownQuotesAsync(String pairs, Throwable failure) {
+        return Uni.createFrom().item(() -> lastKnownQuotes(pairs, failure));
+    }
+
+    private <T> Uni<T> hedged(Supplier<Uni<T>> call) {
+        if (!hedgeEnabled) {
+            return call.get();
+        }
+        // A primeira resposta vence e a outra chamada é cancelada
+        Uni<T> backup = Uni.createFrom().voidItem()
+                .onItem().delayIt().by(hedgeDelay)
+                .onItem().transformToUni(ignored -> call.get());
+        return Uni.combine().any().of(call.get(), backup);
+    }
+
+    private <T> T timedBlocking(String pair, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = call.get();
+            sample.stop(upstreamTimer(pair, "success"));
+            return result;
+        } catch (RuntimeException e) {
+            sample.stop(upstreamTimer(pair, outcome(e)));
+            throw e;
+        }
+    }
+
+    private <T> Uni<T> timed(String pair, Supplier<Uni<T>> call) {
+        return Uni.createFrom().deferred(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call.get().onTermination().invoke((item, failure, cancelled) ->
+                    sample.stop(upstreamTimer(pair, cancelled ? "cancelled" : outcome(failure))));
+        });
+    }
+
+    private Timer upstreamTimer(String pair, String outcome) {
+        return Timer.builder("currency.upstream.requests")
+                .description("Chamadas à AwesomeAPI por par e resultado")
+                .tag("pair", pair)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "success";
+        }
+        if (failure instanceof WebApplicationException web) {
+            return web.getResponse().getStatus() < 500 ? "client_error" : "server_error";
+        }
+        return "error";
+    }
+
+    private void remember(CurrencyQuote quote) {
+        String key = quote.code() + "-" + quote.codein();
+        if (lastKnown.size() < lastKnownMaxSize || lastKnown.containsKey(key)) {
+            lastKnown.put(key, quote);
+        }
+    }
+
+    private ServiceUnavailableException unavailable(Throwable failure) {
+        return new ServiceUnavailableException("AwesomeAPI indisponível: " + failure.getMessage());
+    }
+}
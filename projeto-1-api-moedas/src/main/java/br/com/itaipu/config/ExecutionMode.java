@@ -0,0 +1,11 @@
+package br.com.itaipu.config;
+
+/**
+ * Modelo de execução dos endpoints de cotação, selecionado por
+ * {@code currency.execution-mode}.
+ */
+public enum ExecutionMode {
+    BLOCKING,       // Chamadas bloqueantes executadas no pool de workers
+    VIRTUAL_THREAD, // Chamadas bloqueantes executadas em uma virtual thread por requisição
+    REACTIVE        // Pipeline Mutiny executado no event loop
+}
@@ -0,0 +1,86 @@
+package br.com.itaipu.history;
+
+import br.com.itaipu.model.CurrencyPair;
+import br.com.itaipu.model.CurrencyQuote;
+import br.com.itaipu.model.HistoryStats;
+import br.com.itaipu.model.OhlcBar;
+import br.com.itaipu.model.QuotePoint;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Histórico intradiário das cotações vistas pelo serviço, uma {@link QuoteSeries}
+ * por par.
+ * <p>
+ * Cada ponto ocupa {@link QuoteSeries#BYTES_PER_POINT} (40) bytes e cada série
+ * cresce sob demanda até {@code currency.history.capacity-per-pair} pontos, então o
+ * consumo acompanha os pontos gravados: um milhão de pontos ocupa 40.000.000 bytes
+ * (~38 MiB) somando todos os pares. Como os arrays dobram, uma série aloca no máximo
+ * o dobro dos seus pontos (verificado em QuoteSeriesTest).
+ */
+@ApplicationScoped
+public class QuoteHistory {
+
+    @ConfigProperty(name = "currency.history.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "currency.history.capacity-per-pair", defaultValue = "86400")
+    int capacityPerPair;
+
+    @ConfigProperty(name = "currency.history.retention", defaultValue = "PT24H")
+    Duration retention;
+
+    @ConfigProperty(name = "currency.history.max-pairs", defaultValue = "100")
+    int maxPairs;
+
+    private final Map<CurrencyPair, QuoteSeries> series = new ConcurrentHashMap<>();
+
+    public void record(CurrencyQuote quote) {
+        if (!enabled || quote.wasDerived() || quote.wasFallback() || quote.code() == null || quote.codein() == null || quote.bid() == null) {
+            return;
+        }
+        CurrencyPair pair = new CurrencyPair(quote.code(), quote.codein());
+        QuoteSeries target = series.get(pair);
+        if (target == null) {
+            if (series.size() >= maxPairs) {
+                return;
+            }
+            target = series.computeIfAbsent(pair, key -> new QuoteSeries(capacityPerPair));
+        }
+
+        long timestamp = quote.timestamp() != null ? quote.timestamp() : System.currentTimeMillis() / 1000;
+        long minTimestamp = System.currentTimeMillis() / 1000 - retention.toSeconds();
+        target.append(timestamp, toDouble(quote.bid()), toDouble(quote.ask()),
+                toDouble(quote.high()), toDouble(quote.low()), minTimestamp);
+    }
+
+    public List<QuotePoint> range(String from, String to, long start, long end, int limit) {
+        QuoteSeries target = series.get(new CurrencyPair(from, to));
+        return target == null ? List.of() : target.range(start, end, limit);
+    }
+
+    public List<OhlcBar> ohlc(String from, String to, long start, long end, long bucketSeconds) {
+        QuoteSeries target = series.get(new CurrencyPair(from, to));
+        return target == null ? List.of() : target.ohlc(start, end, bucketSeconds);
+    }
+
+    public HistoryStats stats() {
+        long points = 0;
+        long memoryBytes = 0;
+        for (QuoteSeries value : series.values()) {
+            points += value.size();
+            memoryBytes += value.memoryBytes();
+        }
+        return new HistoryStats(series.size(), points, capacityPerPair, memoryBytes);
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+}
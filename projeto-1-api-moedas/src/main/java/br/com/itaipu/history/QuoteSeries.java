@@ -0,0 +1,213 @@
+package br.com.itaipu.history;
+
+import br.com.itaipu.model.OhlcBar;
+import br.com.itaipu.model.QuotePoint;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Série temporal de um par em buffer circular de arrays primitivos. Cada ponto
+ * ocupa {@link #BYTES_PER_POINT} bytes (um long e quatro doubles). Os arrays
+ * começam com {@link #INITIAL_CAPACITY} posições e dobram conforme os pontos
+ * chegam, até {@code capacity}: um par pouco consultado não reserva o dia inteiro.
+ * Os timestamps são estritamente crescentes, o que permite busca binária nas
+ * consultas por intervalo.
+ */
+final class QuoteSeries {
+
+    static final int BYTES_PER_POINT = Long.BYTES + 4 * Double.BYTES;
+
+    static final int INITIAL_CAPACITY = 64;
+
+    private final int capacity;
+    private long[] timestamps;
+    private double[] bids;
+    private double[] asks;
+    private double[] highs;
+    private double[] lows;
+
+    private int head;   // Próxima posição de escrita
+    private int size;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    QuoteSeries(int capacity) {
+        this.capacity = capacity;
+        allocate(Math.min(INITIAL_CAPACITY, capacity));
+    }
+
+    /**
+     * Adiciona um ponto, sobrescrevendo o mais antigo quando o buffer está cheio.
+     * Pontos com timestamp igual ou anterior ao último são ignorados.
+     */
+    boolean append(long timestamp, double bid, double ask, double high, double low, long minTimestamp) {
+        lock.writeLock().lock();
+        try {
+            if (size > 0 && timestamp <= timestamps[physical(size - 1)]) {
+                return false;
+            }
+            if (size == timestamps.length && size < capacity) {
+                grow();
+            }
+            timestamps[head] = timestamp;
+            bids[head] = bid;
+            asks[head] = ask;
+            highs[head] = high;
+            lows[head] = low;
+            head = (head + 1) % timestamps.length;
+            size = Math.min(size + 1, timestamps.length);
+
+            // Retenção por tempo: descarta pontos antigos a partir do início do buffer
+            while (size > 0 && timestamps[physical(0)] < minTimestamp) {
+                size--;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<QuotePoint> range(long start, long end, int limit) {
+        lock.readLock().lock();
+        try {
+            List<QuotePoint> points = new ArrayList<>();
+            for (int i = firstAtOrAfter(start); i < size && points.size() < limit; i++) {
+                int index = physical(i);
+                if (timestamps[index] > end) {
+                    break;
+                }
+                points.add(new QuotePoint(timestamps[index], decimal(bids[index]), decimal(asks[index]),
+                        decimal(highs[index]), decimal(lows[index])));
+            }
+            return points;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega os bids do intervalo em barras OHLC de {@code bucketSeconds}.
+     */
+    List<OhlcBar> ohlc(long start, long end, long bucketSeconds) {
+        lock.readLock().lock();
+        try {
+            List<OhlcBar> bars = new ArrayList<>();
+            long bucketStart = Long.MIN_VALUE;
+            double open = 0;
+            double high = 0;
+            double low = 0;
+            double close = 0;
+            int samples = 0;
+
+            for (int i = firstAtOrAfter(start); i < size; i++) {
+                int index = physical(i);
+                long timestamp = timestamps[index];
+                if (timestamp > end) {
+                    break;
+                }
+                double bid = bids[index];
+                long bucket = timestamp - Math.floorMod(timestamp, bucketSeconds);
+                if (bucket != bucketStart) {
+                    if (samples > 0) {
+                        bars.add(bar(bucketStart, open, high, low, close, samples));
+                    }
+                    bucketStart = bucket;
+                    open = bid;
+                    high = bid;
+                    low = bid;
+                    samples = 0;
+                }
+                high = Math.max(high, bid);
+                low = Math.min(low, bid);
+                close = bid;
+                samples++;
+            }
+            if (samples > 0) {
+                bars.add(bar(bucketStart, open, high, low, close, samples));
+            }
+            return bars;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Memória dos arrays alocados até agora, não da capacidade máxima
+    long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) timestamps.length * BYTES_PER_POINT;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Dobra os arrays (limitado à capacidade), copiando os pontos em ordem a partir da posição 0
+    private void grow() {
+        long[] oldTimestamps = timestamps;
+        double[] oldBids = bids;
+        double[] oldAsks = asks;
+        double[] oldHighs = highs;
+        double[] oldLows = lows;
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = physical(i);
+        }
+        allocate((int) Math.min((long) oldTimestamps.length * 2, capacity));
+        for (int i = 0; i < size; i++) {
+            int index = order[i];
+            timestamps[i] = oldTimestamps[index];
+            bids[i] = oldBids[index];
+            asks[i] = oldAsks[index];
+            highs[i] = oldHighs[index];
+            lows[i] = oldLows[index];
+        }
+        head = size;
+    }
+
+    private void allocate(int length) {
+        timestamps = new long[length];
+        bids = new double[length];
+        asks = new double[length];
+        highs = new double[length];
+        lows = new double[length];
+    }
+
+    private int firstAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[physical(mid)] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Converte a posição lógica (0 = ponto mais antigo) para o índice no array
+    private int physical(int logical) {
+        return Math.floorMod(head - size + logical, timestamps.length);
+    }
+
+    private static OhlcBar bar(long start, double open, double high, double low, double close, int samples) {
+        return new OhlcBar(start, decimal(open), decimal(high), decimal(low), decimal(close), samples);
+    }
+
+    private static BigDecimal decimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+    }
+}
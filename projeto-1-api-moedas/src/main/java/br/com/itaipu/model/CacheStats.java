@@ -0,0 +1,9 @@
+package br.com.itaipu.model;
+
+public record CacheStats(
+    long hits,          // Requisições atendidas pelo cache
+    long staleHits,     // Requisições atendidas com valor expirado enquanto era atualizado
+    long misses,        // Requisições que precisaram consultar o upstream
+    long evictions,     // Entradas removidas por expiração ou limite de tamanho
+    int size            // Quantidade atual de entradas no cache
+) {}
@@ -0,0 +1,20 @@
+package br.com.itaipu.model;
+
+public record CurrencyPair(
+    String from,        // Moeda base (ex: USD)
+    String to           // Moeda de destino (ex: BRL)
+) {
+
+    public static CurrencyPair parse(String pair) {
+        String[] parts = pair.trim().toUpperCase().split("-");
+        if (parts.length != 2 || parts[0].isEmpty() || parts[1].isEmpty()) {
+            throw new IllegalArgumentException("Par de moedas inválido: " + pair);
+        }
+        return new CurrencyPair(parts[0], parts[1]);
+    }
+
+    @Override
+    public String toString() {
+        return from + "-" + to;
+    }
+}
@@ -1,6 +1,9 @@
 package br.com.itaipu.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
+import java.util.List;
 
 public record CurrencyQuote(
     String code,        // Código da moeda base (ex: USD, EUR, BRL)
@@ -13,5 +16,25 @@ public record CurrencyQuote(
     BigDecimal bid,     // Valor de compra da moeda
     BigDecimal ask,     // Valor de venda da moeda
     Long timestamp,     // Momento da cotação em Unix timestamp
-    Long createDate     // Data de criação do registro (pode ser null)
-) {} 
\ No newline at end of file
+    Long createDate,    // Data de criação do registro (pode ser null)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<String> derivedFrom,   // Pares usados para derivar a cotação (null se veio direto do upstream)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long oldestLegAgeMillis,    // Idade da perna mais antiga usada na derivação
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Boolean fallback            // true quando é a última cotação conhecida, servida com o upstream indisponível
+) {
+
+    public boolean wasDerived() {
+        return derivedFrom != null;
+    }
+
+    public boolean wasFallback() {
+        return Boolean.TRUE.equals(fallback);
+    }
+
+    public CurrencyQuote asFallback() {
+        return new CurrencyQuote(code, codein, name, high, low, varBid, pctChange, bid, ask,
+                timestamp, createDate, derivedFrom, oldestLegAgeMillis, true);
+    }
+}
@@ -0,0 +1,8 @@
+package br.com.itaipu.model;
+
+public record HistoryStats(
+    int pairs,              // Quantidade de pares com série registrada
+    long points,            // Total de pontos armazenados
+    int capacityPerPair,    // Pontos máximos por par
+    long memoryBytes        // Memória alocada pelos arrays das séries
+) {}
@@ -0,0 +1,12 @@
+package br.com.itaipu.model;
+
+import java.math.BigDecimal;
+
+public record OhlcBar(
+    Long start,         // Início do intervalo em Unix timestamp
+    BigDecimal open,    // Primeiro bid do intervalo
+    BigDecimal high,    // Maior bid do intervalo
+    BigDecimal low,     // Menor bid do intervalo
+    BigDecimal close,   // Último bid do intervalo
+    Integer samples     // Quantidade de cotações no intervalo
+) {}
@@ -0,0 +1,11 @@
+package br.com.itaipu.model;
+
+import java.math.BigDecimal;
+
+public record QuotePoint(
+    Long timestamp,     // Momento da cotação em Unix timestamp
+    BigDecimal bid,     // Valor de compra da moeda
+    BigDecimal ask,     // Valor de venda da moeda
+    BigDecimal high,    // Maior valor da cotação no período
+    BigDecimal low      // Menor valor da cotação no período
+) {}
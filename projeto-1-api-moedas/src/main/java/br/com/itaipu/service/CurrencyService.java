@@ -1,47 +1,280 @@
 package br.com.itaipu.service;
 
-import br.com.itaipu.client.AwesomeApiClient;
+import br.com.itaipu.cache.QuoteCache;
+import br.com.itaipu.client.AwesomeApiGateway;
+import br.com.itaipu.history.QuoteHistory;
+import br.com.itaipu.model.CacheStats;
 import br.com.itaipu.model.CurrencyQuote;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.WebApplicationException;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class CurrencyService {
 
+    private static final Logger LOG = Logger.getLogger(CurrencyService.class);
+
+    @Inject
+    AwesomeApiGateway awesomeApiGateway;
+
+    @Inject
+    QuoteCache quoteCache;
+
+    @Inject
+    HotPairTracker hotPairTracker;
+
+    @Inject
+    RateGraph rateGraph;
+
     @Inject
-    @RestClient
-    AwesomeApiClient awesomeApiClient;
+    QuoteHistory quoteHistory;
+
+    @ConfigProperty(name = "currency.batch.max-pairs", defaultValue = "10")
+    int batchMaxPairs;
+
+    @ConfigProperty(name = "currency.reactive.max-concurrency", defaultValue = "4")
+    int maxConcurrency;
 
     public CurrencyQuote getQuote(String from, String to) {
+        hotPairTracker.record(from, to);
+        return loadQuote(from, to);
+    }
+
+    public Uni<CurrencyQuote> getQuoteAsync(String from, String to) {
+        hotPairTracker.record(from, to);
+        return loadQuoteAsync(from, to);
+    }
+
+    private CurrencyQuote loadQuote(String from, String to) {
+        CurrencyQuote derived = rateGraph.derive(from, to);
+        if (derived != null) {
+            return derived;
+        }
         try {
-            List<CurrencyQuote> quotes = awesomeApiClient.getQuote(from, to);
-            if (quotes.isEmpty()) {
-                throw new WebApplicationException("Cotação não encontrada", 404);
+            return quoteCache.get(from, to, () -> fetchQuote(from, to));
+        } catch (RuntimeException e) {
+            if (passThrough(e)) {
+                throw e;
             }
-            return quotes.get(0);
-        } catch (Exception e) {
             throw new WebApplicationException("Erro ao obter cotação: " + e.getMessage(), 500);
         }
     }
 
+    private Uni<CurrencyQuote> loadQuoteAsync(String from, String to) {
+        CurrencyQuote derived = rateGraph.derive(from, to);
+        if (derived != null) {
+            return Uni.createFrom().item(derived);
+        }
+        return quoteCache.getAsync(from, to, () -> fetchQuoteAsync(from, to))
+                .onFailure(e -> !passThrough(e))
+                .transform(e -> new WebApplicationException("Erro ao obter cotação: " + e.getMessage(), 500));
+    }
+
+    // Upstream indisponível (503) e erros do cliente (4xx, como par inexistente) chegam ao recurso como estão
+    private static boolean passThrough(Throwable e) {
+        return e instanceof ServiceUnavailableException
+                || e instanceof WebApplicationException web && web.getResponse().getStatus() < 500;
+    }
+
+    public CacheStats getCacheStats() {
+        return quoteCache.stats();
+    }
+
+    private CurrencyQuote fetchQuote(String from, String to) {
+        List<CurrencyQuote> quotes = awesomeApiGateway.getQuote(from, to);
+        if (quotes.isEmpty()) {
+            throw new WebApplicationException("Cotação não encontrada", 404);
+        }
+        CurrencyQuote quote = quotes.get(0);
+        onUpstreamQuote(quote);
+        return quote;
+    }
+
+    private Uni<CurrencyQuote> fetchQuoteAsync(String from, String to) {
+        return awesomeApiGateway.getQuoteAsync(from, to)
+                .map(quotes -> {
+                    if (quotes.isEmpty()) {
+                        throw new WebApplicationException("Cotação não encontrada", 404);
+                    }
+                    return quotes.get(0);
+                })
+                .invoke(this::onUpstreamQuote);
+    }
+
+    // Toda cotação vinda do upstream alimenta o grafo de taxas e o histórico
+    private void onUpstreamQuote(CurrencyQuote quote) {
+        rateGraph.record(quote);
+        quoteHistory.record(quote);
+    }
+
     public List<CurrencyQuote> getMultipleQuotes(String base, String currencies) {
+        List<String> currencyList = parseCurrencies(currencies);
+        currencyList.forEach(currency -> hotPairTracker.record(base, currency));
+
+        // Pares em cache ou deriváveis pelo grafo não geram chamada ao upstream
+        Map<String, CurrencyQuote> quotes = new HashMap<>();
+        List<String> missing = collectCached(base, currencyList, quotes);
+
+        for (List<String> chunk : chunk(missing)) {
+            quotes.putAll(fetchBatch(base, chunk));
+        }
+
+        return inRequestedOrder(currencyList, quotes);
+    }
+
+    /**
+     * Variante não bloqueante de {@link #getMultipleQuotes}: os lotes são buscados
+     * concorrentemente, limitados por {@code currency.reactive.max-concurrency}.
+     */
+    public Uni<List<CurrencyQuote>> getMultipleQuotesAsync(String base, String currencies) {
+        return Uni.createFrom().deferred(() -> {
+            List<String> currencyList = parseCurrencies(currencies);
+            currencyList.forEach(currency -> hotPairTracker.record(base, currency));
+            Map<String, CurrencyQuote> cached = new HashMap<>();
+            List<String> missing = collectCached(base, currencyList, cached);
+
+            return Multi.createFrom().iterable(chunk(missing))
+                    .onItem().transformToUni(chunk -> fetchBatchAsync(base, chunk))
+                    .merge(maxConcurrency)
+                    .collect().in(() -> cached, Map::putAll)
+                    .map(quotes -> inRequestedOrder(currencyList, quotes));
+        });
+    }
+
+    /**
+     * Busca novamente os pares informados no upstream, ignorando o cache.
+     * Usado pelo {@link QuoteRefresher} para atualizar pares antes de expirarem.
+     */
+    public void refreshQuotes(String base, List<String> currencies) {
+        for (List<String> chunk : chunk(currencies)) {
+            fetchBatch(base, chunk);
+        }
+    }
+
+    public boolean isDerivable(String from, String to) {
+        return rateGraph.canDerive(from, to);
+    }
+
+    private List<String> collectCached(String base, List<String> currencyList, Map<String, CurrencyQuote> quotes) {
+        List<String> missing = new ArrayList<>();
+        for (String currency : currencyList) {
+            CurrencyQuote local = rateGraph.derive(base, currency);
+            if (local == null) {
+                local = quoteCache.getIfPresent(base, currency);
+            }
+            if (local != null) {
+                quotes.put(currency, local);
+            } else {
+                missing.add(currency);
+            }
+        }
+        return missing;
+    }
+
+    private List<List<String>> chunk(List<String> currencies) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < currencies.size(); i += batchMaxPairs) {
+            chunks.add(currencies.subList(i, Math.min(i + batchMaxPairs, currencies.size())));
+        }
+        return chunks;
+    }
+
+    private List<CurrencyQuote> inRequestedOrder(List<String> currencyList, Map<String, CurrencyQuote> quotes) {
+        // Mantém a ordem solicitada e omite os pares que falharam
+        return currencyList.stream()
+                .map(quotes::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<String> parseCurrencies(String currencies) {
+        if (currencies == null || currencies.isBlank()) {
+            throw new WebApplicationException("Parâmetro currencies é obrigatório", 400);
+        }
+        return Arrays.stream(currencies.split(","))
+                .map(String::trim)
+                .filter(currency -> !currency.isEmpty())
+                .map(String::toUpperCase)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, CurrencyQuote> fetchBatch(String base, List<String> currencies) {
+        String pairs = joinPairs(base, currencies);
         try {
-            List<String> currencyList = Arrays.asList(currencies.split(","));
-            return currencyList.stream()
-                    .map(currency -> getQuote(base, currency.trim()))
-                    .collect(Collectors.toList());
+            return storeBatch(base, currencies, awesomeApiGateway.getLastQuotes(pairs));
         } catch (Exception e) {
-            throw new WebApplicationException("Erro ao obter múltiplas cotações: " + e.getMessage(), 500);
+            // A AwesomeAPI rejeita o lote inteiro quando um dos pares é inválido: buscar par a par
+            LOG.warnf("Falha ao buscar lote %s, buscando pares individualmente: %s", pairs, e.getMessage());
+            return fetchIndividually(base, currencies);
+        }
+    }
+
+    private Map<String, CurrencyQuote> fetchIndividually(String base, List<String> currencies) {
+        Map<String, CurrencyQuote> quotes = new HashMap<>();
+        for (String currency : currencies) {
+            try {
+                quotes.put(currency, loadQuote(base, currency));
+            } catch (Exception e) {
+                LOG.warnf("Cotação %s-%s indisponível: %s", base, currency, e.getMessage());
+            }
+        }
+        return quotes;
+    }
+
+    private Uni<Map<String, CurrencyQuote>> fetchBatchAsync(String base, List<String> currencies) {
+        String pairs = joinPairs(base, currencies);
+        return awesomeApiGateway.getLastQuotesAsync(pairs)
+                .map(response -> storeBatch(base, currencies, response))
+                .onFailure().recoverWithUni(e -> {
+                    LOG.warnf("Falha ao buscar lote %s, buscando pares individualmente: %s", pairs, e.getMessage());
+                    return fetchIndividuallyAsync(base, currencies);
+                });
+    }
+
+    private Uni<Map<String, CurrencyQuote>> fetchIndividuallyAsync(String base, List<String> currencies) {
+        return Multi.createFrom().iterable(currencies)
+                .onItem().transformToUni(currency -> loadQuoteAsync(base, currency)
+                        .map(quote -> Map.entry(currency, quote))
+                        .onFailure().invoke(e -> LOG.warnf("Cotação %s-%s indisponível: %s", base, currency, e.getMessage()))
+                        .onFailure().recoverWithNull())
+                .merge(maxConcurrency)
+                .collect().asMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private String joinPairs(String base, List<String> currencies) {
+        return currencies.stream()
+                .map(currency -> base + "-" + currency)
+                .collect(Collectors.joining(","));
+    }
+
+    private Map<String, CurrencyQuote> storeBatch(String base, List<String> currencies, Map<String, CurrencyQuote> response) {
+        Map<String, CurrencyQuote> quotes = new HashMap<>();
+        for (String currency : currencies) {
+            CurrencyQuote quote = response.get(base + currency);
+            if (quote != null) {
+                onUpstreamQuote(quote);
+                quoteCache.put(base, currency, quote);
+                quotes.put(currency, quote);
+            }
         }
+        return quotes;
     }
 
     public List<String> getAvailableCurrencies() {
         return List.of("USD", "EUR", "BRL", "GBP", "JPY", "CAD", "AUD", "CHF", "CNY", "BTC", "ETH");
     }
-} 
\ No newline at end of file
+}
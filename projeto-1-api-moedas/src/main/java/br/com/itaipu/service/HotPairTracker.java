@@ -0,0 +1,59 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.model.CurrencyPair;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Acompanha quais pares são efetivamente solicitados. Cada par tem uma
+ * pontuação com decaimento exponencial: a cada ciclo do refresher a pontuação
+ * é multiplicada por {@code currency.refresh.decay} e somada às requisições
+ * do ciclo, e pares abaixo de {@code currency.refresh.min-score} saem do conjunto.
+ */
+@ApplicationScoped
+public class HotPairTracker {
+
+    @ConfigProperty(name = "currency.refresh.decay", defaultValue = "0.5")
+    double decay;
+
+    @ConfigProperty(name = "currency.refresh.min-score", defaultValue = "0.1")
+    double minScore;
+
+    private final Map<CurrencyPair, PairDemand> demand = new ConcurrentHashMap<>();
+
+    public void record(String from, String to) {
+        demand.computeIfAbsent(new CurrencyPair(from, to), pair -> new PairDemand()).requests.increment();
+    }
+
+    /**
+     * Aplica o decaimento, remove pares que deixaram de ser solicitados e retorna
+     * os {@code limit} pares mais quentes.
+     */
+    public List<CurrencyPair> decayAndGetHottest(int limit) {
+        demand.entrySet().removeIf(entry -> entry.getValue().decay(decay) < minScore);
+        return demand.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<CurrencyPair, PairDemand> entry) -> entry.getValue().score).reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private static final class PairDemand {
+
+        private final LongAdder requests = new LongAdder();
+        private volatile double score;
+
+        // Executado apenas pelo refresher, que não roda concorrentemente
+        double decay(double factor) {
+            score = score * factor + requests.sumThenReset();
+            return score;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.cache.QuoteCache;
+import br.com.itaipu.model.CurrencyPair;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mantém atualizados, antes de expirarem no cache, os pares mais solicitados
+ * e os pares anunciados em {@link CurrencyService#getAvailableCurrencies()}.
+ */
+@ApplicationScoped
+public class QuoteRefresher {
+
+    private static final Logger LOG = Logger.getLogger(QuoteRefresher.class);
+
+    @Inject
+    CurrencyService currencyService;
+
+    @Inject
+    HotPairTracker hotPairTracker;
+
+    @Inject
+    QuoteCache quoteCache;
+
+    @ConfigProperty(name = "currency.refresh.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "currency.refresh.top-n", defaultValue = "20")
+    int topN;
+
+    @ConfigProperty(name = "currency.refresh.ahead-ratio", defaultValue = "0.8")
+    double aheadRatio;
+
+    @ConfigProperty(name = "currency.refresh.base", defaultValue = "BRL")
+    String advertisedBase;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (enabled) {
+            // Aquece os pares anunciados sem atrasar a inicialização
+            Infrastructure.getDefaultWorkerPool().execute(this::refresh);
+        }
+    }
+
+    @Scheduled(every = "{currency.refresh.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        Set<CurrencyPair> pairs = new LinkedHashSet<>(advertisedPairs());
+        // Pares quentes que o grafo consegue derivar das pernas anunciadas não precisam de upstream
+        hotPairTracker.decayAndGetHottest(topN).stream()
+                .filter(pair -> !currencyService.isDerivable(pair.from(), pair.to()))
+                .forEach(pairs::add);
+
+        Map<String, List<String>> dueByBase = pairs.stream()
+                .filter(pair -> quoteCache.needsRefresh(pair.from(), pair.to(), aheadRatio))
+                .collect(Collectors.groupingBy(CurrencyPair::from,
+                        Collectors.mapping(CurrencyPair::to, Collectors.toList())));
+
+        dueByBase.forEach((base, currencies) -> {
+            try {
+                currencyService.refreshQuotes(base, currencies);
+            } catch (Exception e) {
+                LOG.warnf("Falha ao atualizar cotações de %s: %s", base, e.getMessage());
+            }
+        });
+    }
+
+    private List<CurrencyPair> advertisedPairs() {
+        return currencyService.getAvailableCurrencies().stream()
+                .filter(currency -> !currency.equals(advertisedBase))
+                .map(currency -> new CurrencyPair(currency, advertisedBase))
+                .collect(Collectors.toList());
+    }
+}
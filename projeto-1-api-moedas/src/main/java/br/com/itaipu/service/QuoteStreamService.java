@@ -0,0 +1,107 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.model.CurrencyPair;
+import br.com.itaipu.model.CurrencyQuote;
+import io.smallrye.mutiny.Multi;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Fluxos de cotações para Server-Sent Events. Cada par tem um único polling
+ * compartilhado por todos os assinantes, que só emite quando bid ou ask mudam.
+ * Cada assinante recebe as atualizações com descarte das anteriores quando não
+ * consome a tempo, de modo que um consumidor lento não segura o polling.
+ */
+@ApplicationScoped
+public class QuoteStreamService {
+
+    private static final Logger LOG = Logger.getLogger(QuoteStreamService.class);
+
+    @Inject
+    CurrencyService currencyService;
+
+    @ConfigProperty(name = "currency.stream.poll-interval", defaultValue = "PT5S")
+    Duration pollInterval;
+
+    @ConfigProperty(name = "currency.stream.max-pairs", defaultValue = "20")
+    int maxPairs;
+
+    private final Map<CurrencyPair, Multi<CurrencyQuote>> feeds = new ConcurrentHashMap<>();
+    private final Map<CurrencyPair, CurrencyQuote> latest = new ConcurrentHashMap<>();
+
+    public Multi<CurrencyQuote> stream(String pairs) {
+        List<CurrencyPair> pairList = parsePairs(pairs);
+        List<Multi<CurrencyQuote>> streams = pairList.stream()
+                .map(this::subscribe)
+                .collect(Collectors.toList());
+        return Multi.createBy().merging().streams(streams);
+    }
+
+    private List<CurrencyPair> parsePairs(String pairs) {
+        if (pairs == null || pairs.isBlank()) {
+            throw new WebApplicationException("Parâmetro pairs é obrigatório", 400);
+        }
+        List<CurrencyPair> pairList;
+        try {
+            pairList = Arrays.stream(pairs.split(","))
+                    .filter(pair -> !pair.isBlank())
+                    .map(CurrencyPair::parse)
+                    .distinct()
+                    .collect(Collectors.toList());
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(e.getMessage(), 400);
+        }
+        if (pairList.size() > maxPairs) {
+            throw new WebApplicationException("Máximo de " + maxPairs + " pares por stream", 400);
+        }
+        return pairList;
+    }
+
+    private Multi<CurrencyQuote> subscribe(CurrencyPair pair) {
+        return Multi.createFrom().deferred(() -> {
+            Multi<CurrencyQuote> updates = feeds.computeIfAbsent(pair, this::createFeed)
+                    .onOverflow().dropPreviousItems();
+
+            // Quem chega depois recebe a última cotação conhecida antes das próximas mudanças
+            CurrencyQuote last = latest.get(pair);
+            if (last == null) {
+                return updates;
+            }
+            return Multi.createBy().merging().streams(Multi.createFrom().item(last), updates);
+        });
+    }
+
+    private Multi<CurrencyQuote> createFeed(CurrencyPair pair) {
+        return Multi.createFrom().ticks().every(pollInterval)
+                .onOverflow().drop()
+                .onItem().transformToUniAndConcatenate(tick -> currencyService.getQuoteAsync(pair.from(), pair.to())
+                        .onFailure().invoke(e -> LOG.warnf("Falha ao consultar %s para o stream: %s", pair, e.getMessage()))
+                        .onFailure().recoverWithNull())
+                .select().where(quote -> hasChanged(pair, quote))
+                // Sem assinantes o polling é cancelado e o próximo assinante cria um novo
+                .onCancellation().invoke(() -> feeds.remove(pair))
+                .broadcast().withCancellationAfterLastSubscriberDeparture().toAllSubscribers();
+    }
+
+    private boolean hasChanged(CurrencyPair pair, CurrencyQuote quote) {
+        CurrencyQuote previous = latest.put(pair, quote);
+        return previous == null
+                || !sameValue(previous.bid(), quote.bid())
+                || !sameValue(previous.ask(), quote.ask());
+    }
+
+    private boolean sameValue(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.model.CurrencyQuote;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grafo com as últimas cotações conhecidas (pernas) entre moedas. Cada cotação
+ * obtida do upstream gera duas arestas: a direta e a inversa. Pares que não
+ * foram buscados diretamente são derivados pelo menor caminho entre pernas
+ * mais novas que {@code currency.graph.max-leg-age} (ex: EUR→USD a partir de
+ * EUR→BRL e USD→BRL).
+ */
+@ApplicationScoped
+public class RateGraph {
+
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+
+    @ConfigProperty(name = "currency.graph.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "currency.graph.max-leg-age", defaultValue = "PT60S")
+    Duration maxLegAge;
+
+    @ConfigProperty(name = "currency.graph.max-hops", defaultValue = "3")
+    int maxHops;
+
+    private final Map<String, Map<String, Leg>> edges = new ConcurrentHashMap<>();
+
+    public void record(CurrencyQuote quote) {
+        if (quote.wasDerived() || quote.wasFallback() || quote.code() == null || quote.codein() == null
+                || quote.bid() == null || quote.ask() == null
+                || quote.bid().signum() <= 0 || quote.ask().signum() <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String source = quote.code() + "-" + quote.codein();
+        edges.computeIfAbsent(quote.code(), currency -> new ConcurrentHashMap<>())
+                .put(quote.codein(), new Leg(quote.bid(), quote.ask(), now, source, false));
+        // Na perna inversa a compra vira venda: bid = 1/ask e ask = 1/bid
+        edges.computeIfAbsent(quote.codein(), currency -> new ConcurrentHashMap<>())
+                .put(quote.code(), new Leg(BigDecimal.ONE.divide(quote.ask(), PRECISION),
+                        BigDecimal.ONE.divide(quote.bid(), PRECISION), now, source, true));
+    }
+
+    public boolean canDerive(String from, String to) {
+        return enabled && findPath(from, to) != null;
+    }
+
+    /**
+     * Deriva a cotação a partir das pernas conhecidas, ou retorna null quando não há
+     * caminho com pernas recentes. O par direto não é considerado derivado e fica a
+     * cargo do cache.
+     */
+    public CurrencyQuote derive(String from, String to) {
+        if (!enabled) {
+            return null;
+        }
+        List<Leg> path = findPath(from, to);
+        if (path == null) {
+            return null;
+        }
+
+        BigDecimal bid = BigDecimal.ONE;
+        BigDecimal ask = BigDecimal.ONE;
+        long oldestFetchedAt = Long.MAX_VALUE;
+        List<String> sources = new ArrayList<>();
+        for (Leg leg : path) {
+            bid = bid.multiply(leg.bid(), PRECISION);
+            ask = ask.multiply(leg.ask(), PRECISION);
+            oldestFetchedAt = Math.min(oldestFetchedAt, leg.fetchedAt());
+            sources.add(leg.source());
+        }
+
+        return new CurrencyQuote(
+                from,
+                to,
+                from + "/" + to + " (derivada)",
+                null,
+                null,
+                null,
+                null,
+                bid,
+                ask,
+                oldestFetchedAt / 1000,
+                null,
+                sources,
+                System.currentTimeMillis() - oldestFetchedAt,
+                null
+        );
+    }
+
+    private List<Leg> findPath(String from, String to) {
+        if (from.equals(to)) {
+            return null;
+        }
+
+        // Busca em largura: encontra o caminho com menos pernas
+        long minFetchedAt = System.currentTimeMillis() - maxLegAge.toMillis();
+        Map<String, String> previous = new HashMap<>();
+        Map<String, Leg> legTo = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        Map<String, Integer> depth = new HashMap<>();
+        queue.add(from);
+        depth.put(from, 0);
+
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            int currentDepth = depth.get(current);
+            if (currentDepth >= maxHops) {
+                continue;
+            }
+            for (Map.Entry<String, Leg> edge : edges.getOrDefault(current, Map.of()).entrySet()) {
+                String next = edge.getKey();
+                Leg leg = edge.getValue();
+                if (depth.containsKey(next) || leg.fetchedAt() < minFetchedAt) {
+                    continue;
+                }
+                previous.put(next, current);
+                legTo.put(next, leg);
+                depth.put(next, currentDepth + 1);
+                if (next.equals(to)) {
+                    return buildPath(from, to, previous, legTo);
+                }
+                queue.add(next);
+            }
+        }
+        return null;
+    }
+
+    private List<Leg> buildPath(String from, String to, Map<String, String> previous, Map<String, Leg> legTo) {
+        List<Leg> path = new ArrayList<>();
+        for (String current = to; !current.equals(from); current = previous.get(current)) {
+            path.add(legTo.get(current));
+        }
+        if (path.size() == 1 && !path.get(0).inverted()) {
+            return null;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private record Leg(
+        BigDecimal bid,
+        BigDecimal ask,
+        long fetchedAt,     // Momento (epoch millis) em que a perna foi obtida
+        String source,      // Par buscado no upstream que originou a perna
+        boolean inverted    // Se a perna é o inverso do par buscado
+    ) {}
+}
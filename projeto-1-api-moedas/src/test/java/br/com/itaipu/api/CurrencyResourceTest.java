@@ -0,0 +1,48 @@
+package br.com.itaipu.api;
+
+import br.com.itaipu.client.StubAwesomeApi;
+import br.com.itaipu.client.StubAwesomeApi.Behavior;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+@QuarkusTest
+@QuarkusTestResource(StubAwesomeApi.class)
+class CurrencyResourceTest {
+
+    @Inject
+    CircuitBreakerMaintenance circuitBreakers;
+
+    @BeforeEach
+    void setUp() {
+        StubAwesomeApi.reset();
+        circuitBreakers.resetAll();
+    }
+
+    @Test
+    void unknownPairIsNotFound() {
+        // Repetido além do requestVolumeThreshold do circuito: continua 404, nunca 503
+        for (int i = 0; i < 12; i++) {
+            given().get("/api/currency/quote/XYZ/BRL").then().statusCode(404);
+        }
+
+        StubAwesomeApi.given("USD-BRL", Behavior.ok());
+        given().get("/api/currency/quote/USD/BRL")
+                .then()
+                .statusCode(200)
+                .body("code", equalTo("USD"));
+    }
+
+    @Test
+    void unavailableUpstreamIsServiceUnavailable() {
+        StubAwesomeApi.given("NZD-BRL", Behavior.status(500));
+
+        given().get("/api/currency/quote/NZD/BRL").then().statusCode(503);
+    }
+}
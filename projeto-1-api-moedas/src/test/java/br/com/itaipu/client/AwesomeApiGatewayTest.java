@@ -0,0 +1,137 @@
+package br.com.itaipu.client;
+
+import br.com.itaipu.client.StubAwesomeApi.Behavior;
+import br.com.itaipu.model.CurrencyQuote;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(StubAwesomeApi.class)
+class AwesomeApiGatewayTest {
+
+    @Inject
+    AwesomeApiGateway gateway;
+
+    @Inject
+    CircuitBreakerMaintenance circuitBreakers;
+
+    @BeforeEach
+    void setUp() {
+        StubAwesomeApi.reset();
+        circuitBreakers.resetAll();
+    }
+
+    @Test
+    void returnsQuoteFromUpstream() {
+        StubAwesomeApi.given("USD-BRL", Behavior.ok());
+
+        List<CurrencyQuote> quotes = gateway.getQuote("USD", "BRL");
+
+        assertEquals(1, quotes.size());
+        assertEquals("USD", quotes.get(0).code());
+        assertFalse(quotes.get(0).wasFallback());
+    }
+
+    @Test
+    void timesOutSlowUpstream() {
+        StubAwesomeApi.given("GBP-BRL", Behavior.delayed(4000));
+
+        long start = System.currentTimeMillis();
+        assertThrows(ServiceUnavailableException.class, () -> gateway.getQuote("GBP", "BRL"));
+        long elapsed = System.currentTimeMillis() - start;
+
+        // @Timeout de 2s: a chamada não espera o atraso de 4s do upstream
+        assertTrue(elapsed < 3500, "chamada levou " + elapsed + " ms");
+    }
+
+    @Test
+    void fallsBackToLastKnownQuote() {
+        StubAwesomeApi.given("EUR-BRL", Behavior.ok());
+        gateway.getQuote("EUR", "BRL");
+
+        StubAwesomeApi.given("EUR-BRL", Behavior.status(500));
+        List<CurrencyQuote> quotes = gateway.getQuote("EUR", "BRL");
+
+        assertEquals(1, quotes.size());
+        assertTrue(quotes.get(0).wasFallback());
+    }
+
+    @Test
+    void opensCircuitAfterUpstreamFailures() {
+        StubAwesomeApi.given("JPY-BRL", Behavior.status(500));
+        for (int i = 0; i < 10; i++) {
+            assertThrows(ServiceUnavailableException.class, () -> gateway.getQuote("JPY", "BRL"));
+        }
+        assertEquals(10, StubAwesomeApi.requests("JPY-BRL"));
+
+        // Circuito aberto: falha sem chegar ao upstream, inclusive para outros pares
+        StubAwesomeApi.given("CHF-BRL", Behavior.ok());
+        assertThrows(ServiceUnavailableException.class, () -> gateway.getQuote("CHF", "BRL"));
+        assertEquals(0, StubAwesomeApi.requests("CHF-BRL"));
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        // Par inexistente: a AwesomeAPI responde 404
+        for (int i = 0; i < 15; i++) {
+            ClientErrorException error = assertThrows(ClientErrorException.class, () -> gateway.getQuote("XYZ", "BRL"));
+            assertEquals(404, error.getResponse().getStatus());
+        }
+
+        StubAwesomeApi.given("CAD-BRL", Behavior.ok());
+        assertEquals("CAD", gateway.getQuote("CAD", "BRL").get(0).code());
+        assertEquals(15, StubAwesomeApi.requests("XYZ-BRL"));
+    }
+
+    @Test
+    void bulkheadLimitsConcurrentCalls() throws Exception {
+        StubAwesomeApi.given("AUD-BRL", Behavior.delayed(1000));
+
+        ExecutorService executor = Executors.newFixedThreadPool(15);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                Callable<Boolean> call = () -> {
+                    try {
+                        gateway.getQuote("AUD", "BRL");
+                        return true;
+                    } catch (ServiceUnavailableException e) {
+                        return false;
+                    }
+                };
+                results.add(executor.submit(call));
+            }
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+
+            // @Bulkhead(10): no máximo 10 chamadas simultâneas chegam ao upstream, as demais são rejeitadas
+            assertTrue(StubAwesomeApi.requests("AUD-BRL") <= 10, "chamadas ao upstream: " + StubAwesomeApi.requests("AUD-BRL"));
+            assertTrue(succeeded <= 10, "chamadas atendidas: " + succeeded);
+            assertTrue(succeeded > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.itaipu.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AwesomeAPI falsa em um servidor HTTP local, sem acesso à rede. Cada par responde
+ * conforme o comportamento configurado pelo teste (cotação, atraso ou status de erro),
+ * e o servidor conta as requisições recebidas por par.
+ */
+public class StubAwesomeApi implements QuarkusTestResourceLifecycleManager {
+
+    public record Behavior(int status, long delayMillis) {
+
+        public static Behavior ok() {
+            return new Behavior(200, 0);
+        }
+
+        public static Behavior delayed(long delayMillis) {
+            return new Behavior(200, delayMillis);
+        }
+
+        public static Behavior status(int status) {
+            return new Behavior(status, 0);
+        }
+    }
+
+    private static final Map<String, Behavior> behaviors = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/json/", StubAwesomeApi::handle);
+        server.start();
+        return Map.of("br.com.itaipu.client.AwesomeApiClient/mp-rest/url",
+                "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Define a resposta do par (ex: USD-BRL). Pares sem comportamento respondem 404.
+     */
+    public static void given(String pair, Behavior behavior) {
+        behaviors.put(pair, behavior);
+    }
+
+    public static void reset() {
+        behaviors.clear();
+        requests.clear();
+    }
+
+    public static int requests(String pair) {
+        AtomicInteger count = requests.get(pair);
+        return count == null ? 0 : count.get();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        // /json/USD-BRL
+        String pair = exchange.getRequestURI().getPath().substring("/json/".length());
+        requests.computeIfAbsent(pair, p -> new AtomicInteger()).incrementAndGet();
+        try {
+            Behavior behavior = behaviors.getOrDefault(pair, Behavior.status(404));
+            if (behavior.delayMillis() > 0) {
+                Thread.sleep(behavior.delayMillis());
+            }
+            String[] codes = pair.split("-");
+            String json = behavior.status() == 200
+                    ? quoteJson(codes[0], codes.length > 1 ? codes[1] : "")
+                    : "{\"status\":" + behavior.status() + "}";
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(behavior.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // O cliente desistiu da chamada (timeout): nada a responder
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Mesmo formato da AwesomeAPI: valores numéricos como texto
+    private static String quoteJson(String code, String codein) {
+        return "[{\"code\":\"" + code + "\",\"codein\":\"" + codein + "\",\"name\":\"" + code + "/" + codein + "\","
+                + "\"high\":\"5.20\",\"low\":\"5.00\",\"varBid\":\"0.01\",\"pctChange\":\"0.2\","
+                + "\"bid\":\"5.10\",\"ask\":\"5.11\",\"timestamp\":\"" + System.currentTimeMillis() / 1000 + "\"}]";
+    }
+}
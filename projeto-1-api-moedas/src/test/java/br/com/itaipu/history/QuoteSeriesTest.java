@@ -0,0 +1,81 @@
+package br.com.itaipu.history;
+
+import br.com.itaipu.model.QuotePoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuoteSeriesTest {
+
+    private static final int MILLION = 1_000_000;
+
+    @Test
+    void pointCostsFortyBytes() {
+        assertEquals(40, QuoteSeries.BYTES_PER_POINT);
+    }
+
+    @Test
+    void newSeriesDoesNotReserveFullCapacity() {
+        QuoteSeries series = new QuoteSeries(86_400);
+
+        assertEquals((long) QuoteSeries.INITIAL_CAPACITY * QuoteSeries.BYTES_PER_POINT, series.memoryBytes());
+    }
+
+    @Test
+    void millionPointsTakeFortyMillionBytes() {
+        QuoteSeries series = new QuoteSeries(MILLION);
+        for (int i = 1; i <= MILLION; i++) {
+            series.append(i, 5.0, 5.1, 5.2, 4.9, 0);
+        }
+
+        assertEquals(MILLION, series.size());
+        assertEquals(40_000_000L, series.memoryBytes());
+    }
+
+    @Test
+    void allocatedMemoryStaysWithinTwicePoints() {
+        QuoteSeries series = new QuoteSeries(MILLION);
+        for (int i = 1; i <= MILLION; i++) {
+            series.append(i, 5.0, 5.1, 5.2, 4.9, 0);
+            if (i % 1000 == 0) {
+                long allocatedPoints = series.memoryBytes() / QuoteSeries.BYTES_PER_POINT;
+                assertTrue(allocatedPoints <= 2L * i, i + " pontos, " + allocatedPoints + " alocados");
+            }
+        }
+    }
+
+    @Test
+    void keepsOrderAcrossGrowthAndWrap() {
+        QuoteSeries series = new QuoteSeries(100);
+        for (int i = 1; i <= 250; i++) {
+            series.append(i, i, i, i, i, 0);
+        }
+
+        List<QuotePoint> points = series.range(0, Long.MAX_VALUE, 1000);
+        assertEquals(100, points.size());
+        assertEquals(151, points.get(0).timestamp());
+        assertEquals(250, points.get(99).timestamp());
+        assertEquals(100L * QuoteSeries.BYTES_PER_POINT, series.memoryBytes());
+    }
+
+    @Test
+    void keepsOrderWhenGrowingAfterRetention() {
+        QuoteSeries series = new QuoteSeries(1000);
+        for (int i = 1; i <= 64; i++) {
+            series.append(i, i, i, i, i, 0);
+        }
+        // A retenção descarta os 10 primeiros, então o buffer dá a volta antes de crescer de novo
+        for (int i = 65; i <= 200; i++) {
+            series.append(i, i, i, i, i, 11);
+        }
+
+        List<QuotePoint> points = series.range(0, Long.MAX_VALUE, 1000);
+        assertEquals(190, points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(11 + i, points.get(i).timestamp());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+// Compara a pilha bloqueante (/api/cart) e a reativa (/api/reactive/cart) sob a mesma carga.
+//
+//   ./gradlew quarkusBuild -Preactive -Dquarkus.profile=reactive
+//   k6 run -e BASE_URL=http://localhost:8081 -e STACK=blocking loadtest/cart-stacks.js
+//   k6 run -e BASE_URL=http://localhost:8081 -e STACK=reactive loadtest/cart-stacks.js
+//
+// Cada iteração cria um carrinho, adiciona e remove um item e lê o carrinho.
+// O resumo traz requisições/s (http_reqs) e o p99 de cada operação.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const STACK = __ENV.STACK || 'blocking';
+const PREFIX = STACK === 'reactive' ? '/api/reactive/cart' : '/api/cart';
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '1500');
+const PRODUCTS = parseInt(__ENV.PRODUCTS || '20');
+
+export const options = {
+    scenarios: {
+        cart: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 200 },
+                { duration: '30s', target: MAX_VUS },
+                { duration: '2m', target: MAX_VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    // Um limite por operação faz o k6 mostrar o p99 de cada uma no resumo
+    thresholds: {
+        'http_req_failed': ['rate<0.01'],
+        'http_req_duration{op:create}': ['p(99)<2000'],
+        'http_req_duration{op:add}': ['p(99)<2000'],
+        'http_req_duration{op:get}': ['p(99)<1000'],
+        'http_req_duration{op:remove}': ['p(99)<2000'],
+    },
+};
+
+export default function () {
+    const created = http.post(`${BASE_URL}${PREFIX}`, null, { tags: { op: 'create' } });
+    if (!check(created, { 'carrinho criado': (r) => r.status === 201 })) {
+        return;
+    }
+    const cartId = created.json('id');
+    const productId = 1 + Math.floor(Math.random() * PRODUCTS);
+
+    const added = http.post(`${BASE_URL}${PREFIX}/${cartId}/items?productId=${productId}&quantity=1`, null, { tags: { op: 'add' } });
+    check(added, { 'item adicionado': (r) => r.status === 200 });
+
+    const read = http.get(`${BASE_URL}${PREFIX}/${cartId}`, { tags: { op: 'get' } });
+    check(read, { 'carrinho lido': (r) => r.status === 200 });
+
+    const removed = http.del(`${BASE_URL}${PREFIX}/${cartId}/items/${productId}`, null, { tags: { op: 'remove' } });
+    check(removed, { 'item removido': (r) => r.status === 200 });
+}
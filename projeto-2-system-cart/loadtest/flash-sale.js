@@ -0,0 +1,86 @@
+// Venda relâmpago: milhares de clientes disputam o mesmo produto com estoque limitado.
+//
+//   k6 run -e BASE_URL=http://localhost:8081 -e STOCK=500 -e MAX_VUS=2000 loadtest/flash-sale.js
+//
+// Cada iteração cria um carrinho, adiciona uma unidade e finaliza a compra. Ao final,
+// o teardown confere que o estoque restante não é negativo (limite "oversell"), e o
+// limite "orders" que não houve mais pedidos que o estoque inicial. O teardown não lê
+// os contadores, então a igualdade estoque inicial = restante + unidades pedidas é
+// verificada em CartCheckoutTest.concurrentCheckoutsNeverOversell.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const STOCK = parseInt(__ENV.STOCK || '500');
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '2000');
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+const orders = new Counter('orders');
+const soldOut = new Counter('sold_out');
+const oversell = new Counter('oversell');
+
+export const options = {
+    scenarios: {
+        flash_sale: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '10s', target: MAX_VUS },
+                { duration: '50s', target: MAX_VUS },
+                { duration: '5s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        'oversell': ['count==0'],
+        'orders': [`count<=${STOCK}`],
+        'http_req_duration{op:checkout}': ['p(99)<2000'],
+    },
+};
+
+export function setup() {
+    const product = {
+        name: `Flash sale ${Date.now()}`,
+        description: 'Produto da venda relâmpago',
+        price: 99.9,
+        category: 'flash-sale',
+        stock: STOCK,
+        currency: 'BRL',
+    };
+    const created = http.post(`${BASE_URL}/api/products`, JSON.stringify(product), JSON_HEADERS);
+    if (created.status !== 201) {
+        throw new Error(`Falha ao criar produto: ${created.status} ${created.body}`);
+    }
+    return { productId: created.json('id') };
+}
+
+export default function (data) {
+    const cart = http.post(`${BASE_URL}/api/cart`, null, { tags: { op: 'create' } });
+    if (cart.status !== 201) {
+        return;
+    }
+    const cartId = cart.json('id');
+
+    const added = http.post(`${BASE_URL}/api/cart/${cartId}/items?productId=${data.productId}&quantity=1`, null, { tags: { op: 'add' } });
+    if (added.status !== 200) {
+        // Sem estoque para reservar: esperado depois que o produto esgota
+        soldOut.add(1);
+        return;
+    }
+
+    const order = http.post(`${BASE_URL}/api/cart/${cartId}/checkout`, null, { tags: { op: 'checkout' } });
+    if (check(order, { 'pedido criado': (r) => r.status === 201 })) {
+        orders.add(1);
+    }
+}
+
+export function teardown(data) {
+    const product = http.get(`${BASE_URL}/api/products/${data.productId}`);
+    const remaining = product.json('stock');
+    console.log(`Estoque inicial ${STOCK}, restante ${remaining}`);
+    if (remaining < 0) {
+        oversell.add(1);
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.itaipu.catalog;
+
+import br.com.itaipu.model.Product;
+import br.com.itaipu.model.ProductSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Busca no índice invertido do {@link ProductCatalog} comparada a uma varredura
+ * linear com a mesma semântica (sem acentos, sem diferenciar maiúsculas, todos os
+ * termos em nome ou descrição), em um catálogo de 100 mil produtos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductSearchBenchmark {
+
+    private static final String[] NAMES = {"Tênis", "Camiseta", "Notebook", "Smartphone", "Cafeteira",
+            "Bicicleta", "Livro", "Fone", "Relógio", "Mochila", "Câmera", "Teclado"};
+    private static final String[] ADJECTIVES = {"Esportivo", "Elétrico", "Básico", "Premium", "Compacto",
+            "Sem Fio", "Automático", "Infantil", "Profissional", "Clássico"};
+    private static final String[] CATEGORIES = {"Eletrônicos", "Esporte", "Casa", "Livros", "Moda"};
+
+    @Param({"100000"})
+    int catalogSize;
+
+    @Param({"tenis", "eletr", "notebook premium"})
+    String query;
+
+    ProductCatalog catalog;
+    List<Product> products;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        catalog = new ProductCatalog();
+        products = new ArrayList<>(catalogSize);
+        for (long id = 1; id <= catalogSize; id++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + id;
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            Product product = new Product(id, name, "Produto da categoria " + category, new BigDecimal("99.90"),
+                    category, 10, "BRL");
+            catalog.put(product);
+            products.add(product);
+        }
+    }
+
+    @Benchmark
+    public ProductSearchResult indexedSearch() {
+        return catalog.search(query, 0, 20);
+    }
+
+    @Benchmark
+    public ProductSearchResult linearScan() {
+        // Mesmo trabalho que o banco faria com lower(unaccent(...)) like '%x%' para cada termo,
+        // em nome e descrição: normalizar e percorrer todos os produtos, contando o total
+        List<String> terms = ProductSearchIndex.tokenize(query);
+        List<Product> matches = products.stream()
+                .filter(product -> {
+                    String text = ProductSearchIndex.normalize(product.name() + " " + product.description());
+                    return terms.stream().allMatch(text::contains);
+                })
+                .collect(Collectors.toList());
+        return new ProductSearchResult(matches.subList(0, Math.min(20, matches.size())), matches.size());
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.itaipu.client;
+
+import br.com.itaipu.model.CurrencyQuote;
+import io.smallrye.mutiny.Uni;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Cliente em processo que responde cotações fixas, sem rede, para os benchmarks.
+ */
+public class StubCurrencyApiClient implements CurrencyApiClient {
+
+    @Override
+    public CurrencyQuote getQuote(String from, String to) {
+        return new CurrencyQuote(
+                from,
+                to,
+                from + "/" + to,
+                new BigDecimal("0.1923"),
+                new BigDecimal("0.1870"),
+                new BigDecimal("0.0011"),
+                new BigDecimal("0.58"),
+                new BigDecimal("0.1901"),
+                new BigDecimal("0.1903"),
+                System.currentTimeMillis() / 1000,
+                null
+        );
+    }
+
+    @Override
+    public Uni<CurrencyQuote> getQuoteAsync(String from, String to) {
+        return Uni.createFrom().item(() -> getQuote(from, to));
+    }
+
+    @Override
+    public List<CurrencyQuote> getQuotes(String base, String currencies) {
+        return Arrays.stream(currencies.split(","))
+                .map(currency -> getQuote(base, currency))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.itaipu.fx;
+
+import br.com.itaipu.client.CurrencyApiClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Monta um {@link FxRateSnapshot} fora do container CDI, já carregado a partir do cliente informado.
+ */
+public final class BenchmarkFxRates {
+
+    private BenchmarkFxRates() {
+    }
+
+    public static FxRateSnapshot create(CurrencyApiClient client) {
+        FxRateSnapshot snapshot = new FxRateSnapshot();
+        snapshot.currencyApiClient = client;
+        snapshot.meterRegistry = new SimpleMeterRegistry();
+        snapshot.bases = List.of("BRL");
+        snapshot.currencies = List.of("USD", "EUR");
+        snapshot.maxStaleness = Duration.ofHours(1);
+        snapshot.deadline = Duration.ofMillis(500);
+        snapshot.maxSize = 100;
+        snapshot.refresh();
+        return snapshot;
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.itaipu.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CartSerializationBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    int itemCount;
+
+    ObjectMapper objectMapper;
+    Cart cart;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        List<CartItem> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            BigDecimal unitPrice = new BigDecimal("19.90").add(BigDecimal.valueOf(i));
+            BigDecimal totalPrice = unitPrice.multiply(BigDecimal.valueOf(2));
+            items.add(new CartItem((long) i, "Produto " + i, 2, unitPrice, totalPrice, "BRL"));
+            total = total.add(totalPrice);
+        }
+        cart = new Cart("benchmark", items, total, "BRL", List.of(
+                new CartTotal("USD", total.multiply(new BigDecimal("0.19")), 1200),
+                new CartTotal("EUR", total.multiply(new BigDecimal("0.17")), 1200)), List.of(), CartStatus.OPEN, 1);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cart);
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.client.StubCurrencyApiClient;
+import br.com.itaipu.entity.CartEntity;
+import br.com.itaipu.entity.CartItemEntity;
+import br.com.itaipu.fx.BenchmarkFxRates;
+import br.com.itaipu.model.Cart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão e cálculo de total de {@link CartAssembler} para carrinhos de 1 a 1.000 itens,
+ * com o snapshot de taxas carregado a partir de um stub em processo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CartServiceBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    int itemCount;
+
+    CartAssembler cartAssembler;
+    CartEntity cartEntity;
+
+    @Setup
+    public void setUp() {
+        cartAssembler = new CartAssembler();
+        cartAssembler.fxRateSnapshot = BenchmarkFxRates.create(new StubCurrencyApiClient());
+        cartAssembler.maxCurrencies = 10;
+        cartEntity = BenchmarkCarts.cart(itemCount);
+    }
+
+    @Benchmark
+    public Cart convertToCart() {
+        return cartAssembler.toCart(cartAssembler.toState(cartEntity), cartAssembler.defaultCurrencies());
+    }
+
+    @Benchmark
+    public BigDecimal recalculateTotal() {
+        cartAssembler.recalculateTotal(cartEntity);
+        return cartEntity.totalPrice;
+    }
+
+    static final class BenchmarkCarts {
+
+        private BenchmarkCarts() {
+        }
+
+        static CartEntity cart(int itemCount) {
+            CartEntity cart = new CartEntity();
+            cart.cartId = UUID.randomUUID().toString();
+            cart.defaultCurrency = "BRL";
+            cart.version = 1L;
+            for (int i = 0; i < itemCount; i++) {
+                CartItemEntity item = new CartItemEntity();
+                item.cart = cart;
+                item.productId = (long) i;
+                item.productName = "Produto " + i;
+                item.quantity = 1 + i % 5;
+                item.unitPrice = new BigDecimal("19.90").add(BigDecimal.valueOf(i));
+                item.totalPrice = item.unitPrice.multiply(BigDecimal.valueOf(item.quantity));
+                item.currency = "BRL";
+                cart.items.add(item);
+            }
+            cart.totalPrice = cart.items.stream()
+                    .map(item -> item.totalPrice)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            return cart;
+        }
+    }
+}
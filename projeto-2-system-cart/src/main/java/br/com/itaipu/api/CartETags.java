@@ -0,0 +1,37 @@
+package br.com.itaipu.api;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.EntityTag;
+
+/**
+ * ETag do carrinho: a versão do {@code CartEntity}. Os totais em outras moedas
+ * não entram na tag, de modo que um 304 mantém os totais que o cliente já tem.
+ */
+final class CartETags {
+
+    private CartETags() {
+    }
+
+    static EntityTag of(long version) {
+        return new EntityTag(Long.toString(version));
+    }
+
+    /**
+     * Versão esperada a partir do header If-Match, ou null quando ausente ou {@code *}.
+     * Aceita uma única tag; qualquer outro valor nunca corresponde à versão atual (412).
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new WebApplicationException("If-Match inválido: " + ifMatch, 412);
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package br.com.itaipu.api;
 
 import br.com.itaipu.model.Cart;
+import br.com.itaipu.model.CartBatchResult;
+import br.com.itaipu.model.CartEvent;
+import br.com.itaipu.model.CartItemRequest;
+import br.com.itaipu.model.Order;
 import br.com.itaipu.service.CartService;
+import br.com.itaipu.service.CheckoutService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import java.util.List;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
@@ -13,17 +24,22 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Tag(name = "Cart API", description = "API para gerenciamento de carrinho de compras")
+// Em virtual threads quando quarkus.virtual-threads.enabled=true; caso contrário, no pool de workers
+@RunOnVirtualThread
 public class CartResource {
 
     @Inject
     CartService cartService;
 
+    @Inject
+    CheckoutService checkoutService;
+
     @POST
     @Operation(summary = "Criar novo carrinho", description = "Cria um novo carrinho de compras")
     public Response createCart() {
         try {
             Cart cart = cartService.createCart();
-            return Response.status(Response.Status.CREATED).entity(cart).build();
+            return Response.status(Response.Status.CREATED).entity(cart).tag(CartETags.of(cart.version())).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro ao criar carrinho: " + e.getMessage())
@@ -33,11 +49,37 @@ public class CartResource {
 
     @GET
     @Path("/{cartId}")
-    @Operation(summary = "Obter carrinho", description = "Retorna os detalhes de um carrinho específico")
-    public Response getCart(@PathParam("cartId") String cartId) {
+    @Operation(summary = "Obter carrinho", description = "Retorna os detalhes de um carrinho específico, com os totais nas moedas informadas em currencies (ex: USD,EUR,GBP). Com If-None-Match igual à versão atual, responde 304 sem corpo")
+    public Response getCart(
+            @PathParam("cartId") String cartId,
+            @QueryParam("currencies") String currencies,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context Request request) {
+        try {
+            if (ifNoneMatch != null) {
+                // Só a versão é consultada: sem itens e sem taxas de câmbio
+                EntityTag current = CartETags.of(cartService.getCartVersion(cartId));
+                Response.ResponseBuilder notModified = request.evaluatePreconditions(current);
+                if (notModified != null) {
+                    return notModified.build();
+                }
+            }
+            Cart cart = cartService.getCart(cartId, currencies);
+            return Response.ok(cart).tag(CartETags.of(cart.version())).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Carrinho não encontrado: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("/{cartId}/events")
+    @Operation(summary = "Eventos do carrinho", description = "Retorna em ordem os eventos de itens do carrinho (com cart.events.enabled), para auditoria e análise")
+    public Response getCartEvents(@PathParam("cartId") String cartId) {
         try {
-            Cart cart = cartService.getCart(cartId);
-            return Response.ok(cart).build();
+            List<CartEvent> events = cartService.getCartEvents(cartId);
+            return Response.ok(events).build();
         } catch (Exception e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Carrinho não encontrado: " + e.getMessage())
@@ -51,28 +93,47 @@ public class CartResource {
     public Response addItem(
             @PathParam("cartId") String cartId,
             @QueryParam("productId") Long productId,
-            @QueryParam("quantity") Integer quantity) {
+            @QueryParam("quantity") Integer quantity,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            Cart cart = cartService.addItem(cartId, productId, quantity);
-            return Response.ok(cart).build();
+            Cart cart = cartService.addItem(cartId, productId, quantity, CartETags.expectedVersion(ifMatch));
+            return Response.ok(cart).tag(CartETags.of(cart.version())).build();
         } catch (Exception e) {
-            return Response.status(Response.Status.BAD_REQUEST)
+            return Response.status(errorStatus(e))
                     .entity("Erro ao adicionar item: " + e.getMessage())
                     .build();
         }
     }
 
+    @POST
+    @Path("/{cartId}/items/batch")
+    @Operation(summary = "Adicionar vários itens ao carrinho", description = "Adiciona uma lista de produtos em uma única operação; itens inválidos ou sem estoque são reportados em errors")
+    public Response addItems(
+            @PathParam("cartId") String cartId,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            List<CartItemRequest> items) {
+        try {
+            CartBatchResult result = cartService.addItems(cartId, items, CartETags.expectedVersion(ifMatch));
+            return Response.ok(result).tag(CartETags.of(result.cart().version())).build();
+        } catch (Exception e) {
+            return Response.status(errorStatus(e))
+                    .entity("Erro ao adicionar itens: " + e.getMessage())
+                    .build();
+        }
+    }
+
     @DELETE
     @Path("/{cartId}/items/{productId}")
     @Operation(summary = "Remover item do carrinho", description = "Remove um produto do carrinho")
     public Response removeItem(
             @PathParam("cartId") String cartId,
-            @PathParam("productId") Long productId) {
+            @PathParam("productId") Long productId,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            Cart cart = cartService.removeItem(cartId, productId);
-            return Response.ok(cart).build();
+            Cart cart = cartService.removeItem(cartId, productId, CartETags.expectedVersion(ifMatch));
+            return Response.ok(cart).tag(CartETags.of(cart.version())).build();
         } catch (Exception e) {
-            return Response.status(Response.Status.BAD_REQUEST)
+            return Response.status(errorStatus(e))
                     .entity("Erro ao remover item: " + e.getMessage())
                     .build();
         }
@@ -84,12 +145,13 @@ public class CartResource {
     public Response updateItemQuantity(
             @PathParam("cartId") String cartId,
             @PathParam("productId") Long productId,
-            @QueryParam("quantity") Integer quantity) {
+            @QueryParam("quantity") Integer quantity,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            Cart cart = cartService.updateItemQuantity(cartId, productId, quantity);
-            return Response.ok(cart).build();
+            Cart cart = cartService.updateItemQuantity(cartId, productId, quantity, CartETags.expectedVersion(ifMatch));
+            return Response.ok(cart).tag(CartETags.of(cart.version())).build();
         } catch (Exception e) {
-            return Response.status(Response.Status.BAD_REQUEST)
+            return Response.status(errorStatus(e))
                     .entity("Erro ao atualizar quantidade: " + e.getMessage())
                     .build();
         }
@@ -98,14 +160,45 @@ public class CartResource {
     @DELETE
     @Path("/{cartId}")
     @Operation(summary = "Limpar carrinho", description = "Remove todos os itens do carrinho")
-    public Response clearCart(@PathParam("cartId") String cartId) {
+    public Response clearCart(@PathParam("cartId") String cartId, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            Cart cart = cartService.clearCart(cartId);
-            return Response.ok(cart).build();
+            Cart cart = cartService.clearCart(cartId, CartETags.expectedVersion(ifMatch));
+            return Response.ok(cart).tag(CartETags.of(cart.version())).build();
         } catch (Exception e) {
-            return Response.status(Response.Status.BAD_REQUEST)
+            return Response.status(errorStatus(e))
                     .entity("Erro ao limpar carrinho: " + e.getMessage())
                     .build();
         }
     }
-} 
\ No newline at end of file
+
+    @POST
+    @Path("/{cartId}/checkout")
+    @Operation(summary = "Finalizar carrinho", description = "Converte o carrinho em pedido: consome o estoque reservado, registra preços e taxas de câmbio (moedas em currencies) e fecha o carrinho")
+    public Response checkout(
+            @PathParam("cartId") String cartId,
+            @QueryParam("currencies") String currencies,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        try {
+            Order order = checkoutService.checkout(cartId, currencies, CartETags.expectedVersion(ifMatch));
+            return Response.status(Response.Status.CREATED).entity(order).build();
+        } catch (Exception e) {
+            return Response.status(errorStatus(e))
+                    .entity("Erro ao finalizar carrinho: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    // If-Match divergente (412) ou mutação concorrente sobre a mesma versão (409)
+    private Response.Status errorStatus(Exception e) {
+        if (e instanceof WebApplicationException web) {
+            int status = web.getResponse().getStatus();
+            if (status == Response.Status.PRECONDITION_FAILED.getStatusCode()) {
+                return Response.Status.PRECONDITION_FAILED;
+            }
+            if (status == Response.Status.CONFLICT.getStatusCode()) {
+                return Response.Status.CONFLICT;
+            }
+        }
+        return Response.Status.BAD_REQUEST;
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.itaipu.api;
+
+import br.com.itaipu.model.ImportResult;
+import br.com.itaipu.service.ProductImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.vertx.http.runtime.RouteConstants;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.mutiny.core.buffer.Buffer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * POST /api/products/import: importação em massa de produtos em NDJSON (um produto
+ * por linha) ou CSV com cabeçalho name,description,price,category,stock[,currency].
+ * <p>
+ * A rota é registrada antes do limite global de corpo do Quarkus
+ * ({@code quarkus.http.limits.max-body-size}), que continua valendo para os demais
+ * endpoints, e aplica o seu próprio limite, {@code product.import.max-body-size}.
+ * O corpo é repassado ao {@link ProductImportService} à medida que chega, com no
+ * máximo {@value #BUFFERED_CHUNKS} pedaços em memória.
+ */
+@ApplicationScoped
+public class ProductImportRoute {
+
+    private static final Logger LOG = Logger.getLogger(ProductImportRoute.class);
+
+    static final String PATH = "/api/products/import";
+    static final String CSV = "text/csv";
+    private static final int BUFFERED_CHUNKS = 16;
+
+    @Inject
+    ProductImportService productImportService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "product.import.max-body-size", defaultValue = "2G")
+    MemorySize maxBodySize;
+
+    void register(@Observes Router router) {
+        router.post(PATH)
+                .order(RouteConstants.ROUTE_ORDER_UPLOAD_LIMIT - 1)
+                .handler(this::handle);
+    }
+
+    private void handle(RoutingContext context) {
+        HttpServerRequest request = context.request();
+        request.pause();
+
+        String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength != null && Long.parseLong(contentLength) > maxBodySize.asLongValue()) {
+            fail(context, tooLarge());
+            return;
+        }
+        String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
+        ProductImportService.Format format = contentType != null && contentType.startsWith(CSV)
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+
+        InputStream body = stream(request);
+        Uni.createFrom().item(() -> productImportService.importProducts(body, format))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .subscribe().with(result -> respond(context, result), failure -> fail(context, failure));
+    }
+
+    // Lê o corpo sob demanda: o Vert.x só entrega mais dados quando a fila tem espaço
+    private InputStream stream(HttpServerRequest request) {
+        AtomicLong received = new AtomicLong();
+        Iterator<Buffer> chunks = io.vertx.mutiny.core.http.HttpServerRequest.newInstance(request).toMulti()
+                .invoke(buffer -> {
+                    if (received.addAndGet(buffer.length()) > maxBodySize.asLongValue()) {
+                        throw tooLarge();
+                    }
+                })
+                .subscribe().asIterable(BUFFERED_CHUNKS, () -> new ArrayBlockingQueue<>(BUFFERED_CHUNKS))
+                .iterator();
+
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return chunks.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return new ByteArrayInputStream(chunks.next().getBytes());
+            }
+        });
+    }
+
+    private void respond(RoutingContext context, ImportResult result) {
+        try {
+            context.response()
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                    .end(objectMapper.writeValueAsString(result));
+        } catch (Exception e) {
+            fail(context, e);
+        }
+    }
+
+    private void fail(RoutingContext context, Throwable failure) {
+        int status = failure instanceof WebApplicationException e ? e.getResponse().getStatus() : 500;
+        if (status == 500) {
+            LOG.errorf(failure, "Erro ao importar produtos");
+        }
+        HttpServerResponse response = context.response().setStatusCode(status);
+        if (!context.request().isEnded()) {
+            // O restante do corpo não será lido
+            response.putHeader(HttpHeaders.CONNECTION, "close");
+        }
+        response.end("Erro ao importar produtos: " + failure.getMessage());
+    }
+
+    private WebApplicationException tooLarge() {
+        return new WebApplicationException("Corpo maior que o limite de importação (" + maxBodySize.asLongValue() + " bytes)", 413);
+    }
+}
@@ -1,31 +1,48 @@
 package br.com.itaipu.api;
 
 import br.com.itaipu.model.Product;
+import br.com.itaipu.model.ProductPage;
+import br.com.itaipu.model.ProductSearchResult;
 import br.com.itaipu.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @Path("/api/products")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Tag(name = "Product API", description = "API para gerenciamento de produtos")
+// Em virtual threads quando quarkus.virtual-threads.enabled=true; caso contrário, no pool de workers
+@RunOnVirtualThread
 public class ProductResource {
 
     @Inject
     ProductService productService;
 
+    @Inject
+    ObjectMapper objectMapper;
+
     @GET
-    @Operation(summary = "Listar todos os produtos", description = "Retorna todos os produtos disponíveis")
-    public Response getAllProducts() {
+    @Operation(summary = "Listar produtos", description = "Retorna uma página de produtos em ordem de id; o cursor da próxima página vai no cabeçalho X-Next-Cursor e deve ser enviado em after")
+    public Response getAllProducts(
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @DefaultValue("50") int limit) {
         try {
-            List<Product> products = productService.getAllProducts();
-            return Response.ok(products).build();
+            return pageResponse(productService.getProducts(after, limit));
+        } catch (WebApplicationException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity("Erro ao listar produtos: " + e.getMessage())
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro ao listar produtos: " + e.getMessage())
@@ -33,6 +50,26 @@ public class ProductResource {
         }
     }
 
+    @GET
+    @Path("/stream")
+    @Operation(summary = "Exportar produtos em streaming", description = "Escreve todos os produtos (ou os de uma categoria) como um array JSON à medida que são lidos do banco, sem paginação")
+    public Response streamProducts(@QueryParam("category") String category) {
+        StreamingOutput output = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                productService.streamProducts(category, product -> {
+                    try {
+                        generator.writeObject(product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return Response.ok(output).build();
+    }
+
     @GET
     @Path("/{id}")
     @Operation(summary = "Obter produto por ID", description = "Retorna um produto específico")
@@ -49,11 +86,17 @@ public class ProductResource {
 
     @GET
     @Path("/category/{category}")
-    @Operation(summary = "Listar produtos por categoria", description = "Retorna produtos de uma categoria específica")
-    public Response getProductsByCategory(@PathParam("category") String category) {
+    @Operation(summary = "Listar produtos por categoria", description = "Retorna uma página de produtos da categoria em ordem de id; o cursor da próxima página vai no cabeçalho X-Next-Cursor")
+    public Response getProductsByCategory(
+            @PathParam("category") String category,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") @DefaultValue("50") int limit) {
         try {
-            List<Product> products = productService.getProductsByCategory(category);
-            return Response.ok(products).build();
+            return pageResponse(productService.getProductsByCategory(category, after, limit));
+        } catch (WebApplicationException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity("Erro ao listar produtos por categoria: " + e.getMessage())
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro ao listar produtos por categoria: " + e.getMessage())
@@ -63,11 +106,20 @@ public class ProductResource {
 
     @GET
     @Path("/search")
-    @Operation(summary = "Buscar produtos por nome", description = "Busca produtos que contenham o nome especificado")
-    public Response searchProducts(@QueryParam("name") String name) {
+    @Operation(summary = "Buscar produtos", description = "Busca por prefixo em nome e descrição, sem diferenciar maiúsculas nem acentos, ordenada por relevância; o total de resultados vai no cabeçalho X-Total-Count")
+    public Response searchProducts(
+            @QueryParam("name") String name,
+            @QueryParam("page") @DefaultValue("0") int page,
+            @QueryParam("size") @DefaultValue("20") int size) {
         try {
-            List<Product> products = productService.searchProducts(name);
-            return Response.ok(products).build();
+            ProductSearchResult result = productService.searchProducts(name, page, size);
+            return Response.ok(result.items())
+                    .header("X-Total-Count", result.total())
+                    .build();
+        } catch (WebApplicationException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity("Erro ao buscar produtos: " + e.getMessage())
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro ao buscar produtos: " + e.getMessage())
@@ -110,9 +162,19 @@ public class ProductResource {
             productService.deleteProduct(id);
             return Response.noContent().build();
         } catch (Exception e) {
-            return Response.status(Response.Status.BAD_REQUEST)
+            // 409 quando o produto ainda está em carrinhos abertos
+            int status = e instanceof WebApplicationException web && web.getResponse().getStatus() == 409 ? 409 : 400;
+            return Response.status(status)
                     .entity("Erro ao excluir produto: " + e.getMessage())
                     .build();
         }
     }
-}
\ No newline at end of file
+
+    private Response pageResponse(ProductPage page) {
+        Response.ResponseBuilder response = Response.ok(page.items());
+        if (page.nextCursor() != null) {
+            response.header("X-Next-Cursor", page.nextCursor());
+        }
+        return response.build();
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.itaipu.cache;
+
+import br.com.itaipu.model.CartState;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache em memória do estado dos carrinhos por cartId. É preenchido na leitura
+ * e atualizado (write-through) pelas mutações do {@code CartService} somente
+ * depois do commit, pelo evento {@link CartState} observado em AFTER_SUCCESS.
+ * Cada entrada guarda a versão do carrinho, e uma versão mais antiga nunca
+ * substitui uma mais nova.
+ * <p>
+ * Entradas sem acesso por {@code cart.cache.idle-ttl} deixam de ser servidas,
+ * e o total de entradas é limitado por {@code cart.cache.max-size}; a expiração
+ * e a remoção das menos usadas ficam a cargo do Caffeine.
+ */
+@ApplicationScoped
+public class CartCache {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "cart.cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "cart.cache.idle-ttl", defaultValue = "PT30M")
+    Duration idleTtl;
+
+    @ConfigProperty(name = "cart.cache.max-size", defaultValue = "10000")
+    int maxSize;
+
+    private Cache<String, CartState> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idleTtl)
+                .removalListener((String cartId, CartState state, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+
+        FunctionCounter.builder("cart.cache.requests", hits, LongAdder::sum)
+                .description("Leituras de carrinho atendidas pelo cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cart.cache.requests", misses, LongAdder::sum)
+                .description("Leituras de carrinho que precisaram consultar o banco")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cart.cache.evictions", evictions, LongAdder::sum)
+                .description("Entradas removidas por inatividade ou limite de tamanho")
+                .register(meterRegistry);
+        Gauge.builder("cart.cache.size", entries, Cache::estimatedSize)
+                .description("Quantidade atual de carrinhos em cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna o estado em cache do carrinho, ou null se ausente ou inativo há mais que o limite.
+     */
+    public CartState get(String cartId) {
+        if (!enabled) {
+            return null;
+        }
+        CartState state = entries.getIfPresent(cartId);
+        if (state == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return state;
+    }
+
+    /**
+     * Preenche o cache a partir de uma leitura do banco. Não substitui uma entrada
+     * de versão mais nova, que pode ter sido gravada por uma mutação concluída durante a leitura.
+     */
+    public void populate(CartState state) {
+        if (enabled) {
+            store(state);
+        }
+    }
+
+    void onCartChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CartState state) {
+        if (enabled) {
+            store(state);
+        }
+    }
+
+    public void invalidate(String cartId) {
+        entries.invalidate(cartId);
+    }
+
+    // Os eventos de commits concorrentes podem chegar fora de ordem: prevalece a maior versão
+    private void store(CartState state) {
+        entries.asMap().merge(state.cartId(), state,
+                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+}
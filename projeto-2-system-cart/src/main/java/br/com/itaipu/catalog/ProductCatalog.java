@@ -0,0 +1,195 @@
+package br.com.itaipu.catalog;
+
+import br.com.itaipu.entity.ProductEntity;
+import br.com.itaipu.model.Product;
+import br.com.itaipu.model.ProductPage;
+import br.com.itaipu.model.ProductSearchResult;
+import br.com.itaipu.repository.ProductRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Modelo de leitura do catálogo em memória: produtos por id, ordenados, e um
+ * índice de ids por categoria. É carregado na inicialização e mantido pelos
+ * eventos {@link ProductChanged} e {@link StockChanged}, aplicados somente
+ * depois do commit das escritas que os publicaram. Cada evento traz a versão da
+ * linha do produto após a escrita; eventos que chegam depois de um mais novo são
+ * descartados, então a ordem de entrega entre commits concorrentes não importa.
+ * <p>
+ * Mantém também o {@link ProductSearchIndex} usado pela busca por nome e descrição.
+ */
+@ApplicationScoped
+public class ProductCatalog {
+
+    private static final Logger LOG = Logger.getLogger(ProductCatalog.class);
+
+    @Inject
+    ProductRepository productRepository;
+
+    private final ConcurrentNavigableMap<Long, Product> byId = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableSet<Long>> byCategory = new ConcurrentHashMap<>();
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+
+    // Última versão aplicada por produto; as escritas de um mesmo produto são serializadas pela sua entrada
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    // Depois do DataInitializer, para carregar também os produtos de exemplo
+    @Transactional
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent ev) {
+        for (ProductEntity entity : productRepository.listAll()) {
+            apply(entity.id, entity.version, () -> put(toProduct(entity)));
+        }
+        LOG.infof("Catálogo carregado com %d produtos e %d termos de busca", byId.size(), searchIndex.termCount());
+    }
+
+    public Product get(Long id) {
+        return byId.get(id);
+    }
+
+    public Map<Long, Product> getAll(Collection<Long> ids) {
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Product::id, product -> product));
+    }
+
+    /**
+     * Página por keyset: até {@code limit} produtos com id maior que {@code after}
+     * (ou desde o início, se null), em ordem de id.
+     */
+    public ProductPage page(Long after, int limit) {
+        Collection<Product> tail = after == null ? byId.values() : byId.tailMap(after, false).values();
+        return toPage(tail.stream(), limit);
+    }
+
+    public ProductPage pageByCategory(String category, Long after, int limit) {
+        NavigableSet<Long> ids = byCategory.get(category);
+        if (ids == null) {
+            return new ProductPage(List.of(), null);
+        }
+        NavigableSet<Long> tail = after == null ? ids : ids.tailSet(after, false);
+        return toPage(tail.stream().map(byId::get).filter(Objects::nonNull), limit);
+    }
+
+    /**
+     * Busca por prefixo, sem diferenciar maiúsculas nem acentos, em nome e descrição,
+     * retornando a página [offset, offset + limit) ordenada por relevância.
+     */
+    public ProductSearchResult search(String query, int offset, int limit) {
+        List<Long> ids = searchIndex.search(query);
+        List<Product> page = ids.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new ProductSearchResult(page, ids.size());
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChanged event) {
+        apply(event.productId(), event.version(), () -> {
+            if (event.product() == null) {
+                remove(event.productId());
+            } else {
+                put(event.product());
+            }
+        });
+    }
+
+    void onStockChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) StockChanged event) {
+        apply(event.productId(), event.version(),
+                () -> byId.computeIfPresent(event.productId(), (id, product) -> withStock(product, event.stock())));
+    }
+
+    // Executa a alteração só se a versão for mais nova que a última aplicada ao produto,
+    // sem bloquear as escritas dos demais produtos
+    private void apply(Long productId, long version, Runnable change) {
+        versions.compute(productId, (id, current) -> {
+            if (current != null && current >= version) {
+                return current;
+            }
+            change.run();
+            return version;
+        });
+    }
+
+    void put(Product product) {
+        Product previous = byId.put(product.id(), product);
+        if (previous != null && !previous.category().equals(product.category())) {
+            removeFromCategory(previous);
+        }
+        if (previous != null) {
+            searchIndex.remove(previous);
+        }
+        searchIndex.add(product);
+        byCategory.computeIfAbsent(product.category(), category -> new ConcurrentSkipListSet<>()).add(product.id());
+    }
+
+    private void remove(Long id) {
+        Product previous = byId.remove(id);
+        if (previous != null) {
+            removeFromCategory(previous);
+            searchIndex.remove(previous);
+        }
+    }
+
+    private static ProductPage toPage(Stream<Product> products, int limit) {
+        // Um item a mais indica se existe próxima página, sem contar o restante
+        List<Product> items = products.limit(limit + 1L).collect(Collectors.toList());
+        if (items.size() <= limit) {
+            return new ProductPage(items, null);
+        }
+        items = items.subList(0, limit);
+        return new ProductPage(items, items.get(limit - 1).id());
+    }
+
+    private void removeFromCategory(Product product) {
+        NavigableSet<Long> ids = byCategory.get(product.category());
+        if (ids != null) {
+            ids.remove(product.id());
+        }
+    }
+
+    public static Product toProduct(ProductEntity entity) {
+        return new Product(
+                entity.id,
+                entity.name,
+                entity.description,
+                entity.price,
+                entity.category,
+                entity.stock,
+                entity.currency
+        );
+    }
+
+    private static Product withStock(Product product, int stock) {
+        return new Product(
+                product.id(),
+                product.name(),
+                product.description(),
+                product.price(),
+                product.category(),
+                stock,
+                product.currency()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.itaipu.catalog;
+
+import br.com.itaipu.model.Product;
+
+/**
+ * Produto criado, alterado ou removido ({@code product} null), publicado pelas
+ * escritas do catálogo e aplicado ao {@link ProductCatalog} após o commit, se
+ * {@code version} for mais nova que a conhecida.
+ */
+public record ProductChanged(
+    Long productId,
+    Product product,
+    long version
+) {
+
+    // Versão da remoção: nenhum evento posterior do produto é aplicado
+    public static ProductChanged removed(Long productId) {
+        return new ProductChanged(productId, null, Long.MAX_VALUE);
+    }
+}
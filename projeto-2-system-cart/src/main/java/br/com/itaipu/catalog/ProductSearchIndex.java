@@ -0,0 +1,120 @@
+package br.com.itaipu.catalog;
+
+import br.com.itaipu.model.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Índice invertido de nome e descrição dos produtos. Os termos são normalizados
+ * sem acentos e em minúsculas ("Tênis" e "tenis" são o mesmo termo) e ficam em um
+ * mapa ordenado, de modo que a busca por prefixo é uma faixa do dicionário.
+ * <p>
+ * Todos os termos da consulta precisam casar (como prefixo) com algum termo do
+ * produto. A relevância soma o peso de cada casamento: nome vale mais que
+ * descrição, e termo completo vale mais que prefixo.
+ */
+class ProductSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float EXACT_BONUS = 2f;
+
+    // termo -> (id do produto -> peso do termo no produto)
+    private final ConcurrentNavigableMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+
+    void add(Product product) {
+        // Inclusão atômica por termo: um remove concorrente não descarta o mapa em que o produto entrou
+        termWeights(product).forEach((term, weight) -> postings.compute(term, (t, docs) -> {
+            Map<Long, Float> updated = docs == null ? new ConcurrentHashMap<>() : docs;
+            updated.put(product.id(), weight);
+            return updated;
+        }));
+    }
+
+    void remove(Product product) {
+        for (String term : termWeights(product).keySet()) {
+            postings.computeIfPresent(term, (t, docs) -> {
+                docs.remove(product.id());
+                return docs.isEmpty() ? null : docs;
+            });
+        }
+    }
+
+    /**
+     * Retorna os ids dos produtos que casam com a consulta, do mais para o menos relevante.
+     */
+    List<Long> search(String query) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Float> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Float> termScores = new HashMap<>();
+            // Faixa [prefixo, prefixo + maior caractere): todos os termos que começam com o prefixo
+            postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).forEach((term, docs) -> {
+                float bonus = term.equals(queryTerm) ? EXACT_BONUS : 1f;
+                docs.forEach((id, weight) -> termScores.merge(id, weight * bonus, Math::max));
+            });
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                // Todos os termos da consulta precisam casar
+                Map<Long, Float> previous = scores;
+                scores = termScores.entrySet().stream()
+                        .filter(entry -> previous.containsKey(entry.getKey()))
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue() + previous.get(entry.getKey())));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        return ranked.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    private static Map<String, Float> termWeights(Product product) {
+        Map<String, Float> weights = new HashMap<>();
+        tokenize(product.description()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Math::max));
+        tokenize(product.name()).forEach(term -> weights.merge(term, NAME_WEIGHT, Math::max));
+        return weights;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(normalize(text)))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
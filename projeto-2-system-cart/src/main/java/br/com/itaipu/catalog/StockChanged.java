@@ -0,0 +1,13 @@
+package br.com.itaipu.catalog;
+
+/**
+ * Estoque de um produto depois de uma escrita, com a versão da linha resultante.
+ * Os eventos de commits concorrentes podem chegar fora de ordem: o catálogo aplica
+ * apenas os de versão maior que a conhecida, então o estoque em memória converge
+ * para o do banco.
+ */
+public record StockChanged(
+    Long productId,
+    int stock,
+    long version
+) {}
@@ -1,13 +1,17 @@
 package br.com.itaipu.client;
 
 import br.com.itaipu.model.CurrencyQuote;
+import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
+import java.util.List;
+
 @Path("/api/currency")
 @RegisterRestClient(configKey = "currency-api")
 public interface CurrencyApiClient {
@@ -16,4 +20,14 @@ public interface CurrencyApiClient {
     @Path("/quote/{from}/{to}")
     @Produces(MediaType.APPLICATION_JSON)
     CurrencyQuote getQuote(@PathParam("from") String from, @PathParam("to") String to);
-} 
\ No newline at end of file
+
+    @GET
+    @Path("/quote/{from}/{to}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Uni<CurrencyQuote> getQuoteAsync(@PathParam("from") String from, @PathParam("to") String to);
+
+    @GET
+    @Path("/quotes/{base}")
+    @Produces(MediaType.APPLICATION_JSON)
+    List<CurrencyQuote> getQuotes(@PathParam("base") String base, @QueryParam("currencies") String currencies);
+}
@@ -0,0 +1,39 @@
+package br.com.itaipu.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class MetricsConfig {
+
+    /**
+     * Publica histogramas de latência para as requisições REST (uma série por
+     * operação, pela tag uri) e para as chamadas à API de moedas.
+     */
+    @Produces
+    @Singleton
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().startsWith("http.server.requests") || id.getName().startsWith("currency.client")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    // Limite de séries por par mesmo que novas moedas passem a ser configuradas
+    @Produces
+    @Singleton
+    public MeterFilter limitPairCardinality() {
+        return MeterFilter.maximumAllowableTags("currency.client.requests", "pair", 50, MeterFilter.deny());
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.itaipu.entity;
 
+import br.com.itaipu.model.CartStatus;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
@@ -8,13 +9,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = @Index(name = "idx_carts_updated_at", columnList = "updatedAt"))
 public class CartEntity extends PanacheEntity {
     
     @Column(unique = true, nullable = false)
     public String cartId;
     
-    @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     public List<CartItemEntity> items = new ArrayList<>();
     
     @Column(nullable = false)
@@ -23,12 +24,20 @@ public class CartEntity extends PanacheEntity {
     @Column(nullable = false)
     public String defaultCurrency = "BRL";
     
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    public CartStatus status = CartStatus.OPEN;
+    
     @Column(nullable = false)
     public LocalDateTime createdAt;
     
     @Column(nullable = false)
     public LocalDateTime updatedAt;
     
+    // Incrementada a cada alteração; exposta como ETag e usada no controle otimista de concorrência
+    @Version
+    public Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,37 @@
+package br.com.itaipu.entity;
+
+import br.com.itaipu.model.CartEventType;
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cart_events", uniqueConstraints = @UniqueConstraint(columnNames = {"cartId", "version"}))
+public class CartEventEntity extends PanacheEntity {
+    
+    @Column(nullable = false)
+    public String cartId;
+    
+    // Versão do carrinho após aplicar o evento: a sequência dos eventos de cada carrinho
+    @Column(nullable = false)
+    public Long version;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    public CartEventType type;
+    
+    public Long productId;
+    
+    public String productName;
+    
+    public Integer quantity;
+    
+    @Column(precision = 10, scale = 2)
+    public BigDecimal unitPrice;
+    
+    public String currency;
+    
+    @Column(nullable = false)
+    public LocalDateTime occurredAt;
+}
@@ -0,0 +1,31 @@
+package br.com.itaipu.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Estado do carrinho até {@code version}, para que a reconstrução a partir do log
+ * leia apenas os eventos posteriores. Só o snapshot mais recente é mantido.
+ */
+@Entity
+@Table(name = "cart_snapshots")
+public class CartSnapshotEntity extends PanacheEntity {
+    
+    @Column(unique = true, nullable = false)
+    public String cartId;
+    
+    @Column(nullable = false)
+    public Long version;
+    
+    @Column(nullable = false)
+    public BigDecimal totalPrice;
+    
+    // Itens do carrinho serializados em JSON
+    @Column(nullable = false, columnDefinition = "text")
+    public String items;
+    
+    @Column(nullable = false)
+    public LocalDateTime takenAt;
+}
@@ -0,0 +1,36 @@
+package br.com.itaipu.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "orders")
+public class OrderEntity extends PanacheEntity {
+    
+    @Column(unique = true, nullable = false)
+    public String orderId;
+    
+    @Column(nullable = false)
+    public String cartId;
+    
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    public List<OrderItemEntity> items = new ArrayList<>();
+    
+    @Column(nullable = false)
+    public BigDecimal totalPrice;
+    
+    @Column(nullable = false)
+    public String currency;
+    
+    // Taxas de câmbio usadas nos totais em outras moedas, congeladas no checkout
+    @ElementCollection
+    @CollectionTable(name = "order_fx_rates", joinColumns = @JoinColumn(name = "order_id"))
+    public List<OrderFxRate> fxRates = new ArrayList<>();
+    
+    @Column(nullable = false)
+    public LocalDateTime createdAt;
+}
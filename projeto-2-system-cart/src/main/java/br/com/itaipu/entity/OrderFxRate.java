@@ -0,0 +1,20 @@
+package br.com.itaipu.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Embeddable
+public class OrderFxRate {
+    
+    @Column(nullable = false)
+    public String currency;
+    
+    @Column(nullable = false, precision = 19, scale = 8)
+    public BigDecimal rate;
+    
+    // Momento em que a taxa foi obtida da API de moedas
+    @Column(nullable = false)
+    public Instant fetchedAt;
+}
@@ -0,0 +1,33 @@
+package br.com.itaipu.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+// Preços copiados do carrinho no checkout, independentes de alterações posteriores do produto
+@Entity
+@Table(name = "order_items")
+public class OrderItemEntity extends PanacheEntity {
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    public OrderEntity order;
+    
+    @Column(nullable = false)
+    public Long productId;
+    
+    @Column(nullable = false)
+    public String productName;
+    
+    @Column(nullable = false)
+    public Integer quantity;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    public BigDecimal unitPrice;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    public BigDecimal totalPrice;
+    
+    @Column(nullable = false)
+    public String currency;
+}
@@ -25,4 +25,8 @@ public class ProductEntity extends PanacheEntity {
     
     @Column(nullable = false)
     public String currency = "BRL";
+    
+    // Incrementada também pelas reservas de estoque, para que edições concorrentes não sobrescrevam o estoque
+    @Version
+    public Long version;
 } 
\ No newline at end of file
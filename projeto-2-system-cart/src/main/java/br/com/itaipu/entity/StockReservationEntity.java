@@ -0,0 +1,25 @@
+package br.com.itaipu.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_reservations",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"cartId", "productId"}),
+        indexes = @Index(name = "idx_stock_reservations_expires_at", columnList = "expiresAt"))
+public class StockReservationEntity extends PanacheEntity {
+    
+    @Column(nullable = false)
+    public String cartId;
+    
+    @Column(nullable = false)
+    public Long productId;
+    
+    // Quantidade retirada do estoque do produto para este carrinho
+    @Column(nullable = false)
+    public Integer quantity;
+    
+    @Column(nullable = false)
+    public LocalDateTime expiresAt;
+}
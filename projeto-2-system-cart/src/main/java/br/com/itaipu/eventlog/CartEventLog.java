@@ -0,0 +1,185 @@
+package br.com.itaipu.eventlog;
+
+import br.com.itaipu.cache.CartCache;
+import br.com.itaipu.entity.CartEntity;
+import br.com.itaipu.entity.CartEventEntity;
+import br.com.itaipu.entity.CartSnapshotEntity;
+import br.com.itaipu.model.CartEvent;
+import br.com.itaipu.model.CartEventType;
+import br.com.itaipu.model.CartItem;
+import br.com.itaipu.model.CartState;
+import br.com.itaipu.model.Product;
+import br.com.itaipu.repository.CartEventRepository;
+import br.com.itaipu.repository.CartRepository;
+import br.com.itaipu.repository.CartSnapshotRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Log append-only das alterações de itens dos carrinhos, habilitado por
+ * {@code cart.events.enabled}. Cada mutação grava apenas os seus eventos e avança
+ * a versão na linha do carrinho com um UPDATE condicional, sem carregar nem
+ * comparar os itens. O estado é reconstruído a partir do último snapshot
+ * ({@link CartSnapshotter}) e dos eventos seguintes.
+ * <p>
+ * Os eventos não são apagados com o carrinho e servem de trilha de auditoria.
+ */
+@ApplicationScoped
+public class CartEventLog {
+
+    private static final TypeReference<List<CartItem>> ITEMS = new TypeReference<>() {
+    };
+
+    @Inject
+    CartRepository cartRepository;
+
+    @Inject
+    CartEventRepository eventRepository;
+
+    @Inject
+    CartSnapshotRepository snapshotRepository;
+
+    @Inject
+    CartCache cartCache;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "cart.events.enabled", defaultValue = "false")
+    boolean enabled;
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public CartState load(CartEntity cartEntity) {
+        return replay(cartEntity, snapshotRepository.findByCartId(cartEntity.cartId)).toState();
+    }
+
+    /**
+     * Registra o evento como o próximo do carrinho e o aplica à projeção; só é gravado em {@link #save}.
+     */
+    public void record(CartProjection cart, CartEventEntity event) {
+        event.cartId = cart.cartId();
+        event.version = cart.version() + 1;
+        event.occurredAt = LocalDateTime.now();
+        cart.apply(event);
+        cart.pending.add(event);
+    }
+
+    /**
+     * Grava os eventos pendentes. Falha com 409 se o carrinho mudou desde que a projeção
+     * foi aberta; nesse caso a entrada do cache, que pode estar desatualizada, é descartada.
+     */
+    public CartState save(CartProjection cart) {
+        if (cart.pending.isEmpty()) {
+            return cart.toState();
+        }
+        if (!cartRepository.advanceVersion(cart.cartId(), cart.baseVersion(), cart.version())) {
+            cartCache.invalidate(cart.cartId());
+            throw new WebApplicationException("Carrinho alterado por outra requisição", 409);
+        }
+        eventRepository.persist(cart.pending);
+        cart.pending.clear();
+        return cart.toState();
+    }
+
+    public List<CartEvent> history(String cartId) {
+        return eventRepository.findByCartId(cartId).stream()
+                .map(event -> new CartEvent(event.version, event.type, event.productId, event.productName,
+                        event.quantity, event.unitPrice, event.currency, event.occurredAt))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Grava o estado atual do carrinho como seu snapshot, se houver eventos desde o anterior.
+     */
+    public void snapshot(String cartId) {
+        CartEntity cartEntity = cartRepository.findByCartId(cartId);
+        if (cartEntity == null) {
+            return;
+        }
+        CartSnapshotEntity snapshot = snapshotRepository.findByCartId(cartId);
+        CartState state = replay(cartEntity, snapshot).toState();
+        if (snapshot == null) {
+            snapshot = new CartSnapshotEntity();
+            snapshot.cartId = cartId;
+        } else if (snapshot.version >= state.version()) {
+            return;
+        }
+        snapshot.version = state.version();
+        snapshot.totalPrice = state.totalPrice();
+        snapshot.items = writeItems(cartId, state.items());
+        snapshot.takenAt = LocalDateTime.now();
+        snapshotRepository.persist(snapshot);
+    }
+
+    public static CartEventEntity itemAdded(Product product, int quantity) {
+        CartEventEntity event = event(CartEventType.ITEM_ADDED, product.id());
+        event.productName = product.name();
+        event.quantity = quantity;
+        event.unitPrice = product.price();
+        event.currency = product.currency();
+        return event;
+    }
+
+    public static CartEventEntity quantityChanged(Long productId, int quantity) {
+        CartEventEntity event = event(CartEventType.QUANTITY_CHANGED, productId);
+        event.quantity = quantity;
+        return event;
+    }
+
+    public static CartEventEntity itemRemoved(Long productId) {
+        return event(CartEventType.ITEM_REMOVED, productId);
+    }
+
+    public static CartEventEntity cleared() {
+        return event(CartEventType.CLEARED, null);
+    }
+
+    // A versão da projeção vem do último evento aplicado, não da linha do carrinho lida antes
+    private CartProjection replay(CartEntity cartEntity, CartSnapshotEntity snapshot) {
+        CartProjection projection = snapshot == null
+                ? new CartProjection(cartEntity.cartId, cartEntity.defaultCurrency, cartEntity.status,
+                        List.of(), BigDecimal.ZERO, 0)
+                : new CartProjection(cartEntity.cartId, cartEntity.defaultCurrency, cartEntity.status,
+                        readItems(snapshot), snapshot.totalPrice, snapshot.version);
+        for (CartEventEntity event : eventRepository.findAfter(cartEntity.cartId, projection.version())) {
+            projection.apply(event);
+        }
+        return projection;
+    }
+
+    private static CartEventEntity event(CartEventType type, Long productId) {
+        CartEventEntity event = new CartEventEntity();
+        event.type = type;
+        event.productId = productId;
+        return event;
+    }
+
+    private List<CartItem> readItems(CartSnapshotEntity snapshot) {
+        try {
+            return objectMapper.readValue(snapshot.items, ITEMS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Snapshot inválido do carrinho " + snapshot.cartId, e);
+        }
+    }
+
+    private String writeItems(String cartId, List<CartItem> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao gravar snapshot do carrinho " + cartId, e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.itaipu.eventlog;
+
+import br.com.itaipu.entity.CartEventEntity;
+import br.com.itaipu.model.CartItem;
+import br.com.itaipu.model.CartState;
+import br.com.itaipu.model.CartStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estado de um carrinho reconstruído a partir de um snapshot (ou do carrinho vazio)
+ * e dos eventos seguintes. O total é atualizado a cada evento, sem percorrer os itens.
+ * <p>
+ * Os eventos registrados por {@link CartEventLog#record} ficam pendentes até
+ * {@link CartEventLog#save}.
+ */
+public final class CartProjection {
+
+    private final String cartId;
+    private final String defaultCurrency;
+    private final CartStatus status;
+    private final Map<Long, CartItem> items = new LinkedHashMap<>();
+    private BigDecimal totalPrice;
+    private final long baseVersion;
+    private long version;
+
+    final List<CartEventEntity> pending = new ArrayList<>();
+
+    CartProjection(String cartId, String defaultCurrency, CartStatus status, List<CartItem> items, BigDecimal totalPrice, long version) {
+        this.cartId = cartId;
+        this.defaultCurrency = defaultCurrency;
+        this.status = status;
+        items.forEach(item -> this.items.put(item.productId(), item));
+        this.totalPrice = totalPrice;
+        this.baseVersion = version;
+        this.version = version;
+    }
+
+    public static CartProjection of(CartState state) {
+        return new CartProjection(state.cartId(), state.defaultCurrency(), state.status(), state.items(), state.totalPrice(), state.version());
+    }
+
+    public String cartId() {
+        return cartId;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // Versão em que o carrinho estava ao ser aberto, antes dos eventos pendentes
+    long baseVersion() {
+        return baseVersion;
+    }
+
+    public boolean contains(Long productId) {
+        return items.containsKey(productId);
+    }
+
+    public int quantityOf(Long productId) {
+        CartItem item = items.get(productId);
+        return item == null ? 0 : item.quantity();
+    }
+
+    void apply(CartEventEntity event) {
+        switch (event.type) {
+            case ITEM_ADDED -> {
+                CartItem current = items.get(event.productId);
+                if (current == null) {
+                    put(new CartItem(event.productId, event.productName, event.quantity, event.unitPrice,
+                            event.unitPrice.multiply(BigDecimal.valueOf(event.quantity)), event.currency));
+                } else {
+                    // Como no modelo por estado, o item mantém o preço da primeira inclusão
+                    put(withQuantity(current, current.quantity() + event.quantity));
+                }
+            }
+            case QUANTITY_CHANGED -> {
+                CartItem current = items.get(event.productId);
+                if (current != null) {
+                    put(withQuantity(current, event.quantity));
+                }
+            }
+            case ITEM_REMOVED -> {
+                CartItem removed = items.remove(event.productId);
+                if (removed != null) {
+                    totalPrice = totalPrice.subtract(removed.totalPrice());
+                }
+            }
+            case CLEARED -> {
+                items.clear();
+                totalPrice = BigDecimal.ZERO;
+            }
+        }
+        version = event.version;
+    }
+
+    public CartState toState() {
+        return new CartState(cartId, List.copyOf(items.values()), totalPrice, defaultCurrency, status, version);
+    }
+
+    private void put(CartItem item) {
+        CartItem previous = items.put(item.productId(), item);
+        BigDecimal previousTotal = previous == null ? BigDecimal.ZERO : previous.totalPrice();
+        totalPrice = totalPrice.add(item.totalPrice()).subtract(previousTotal);
+    }
+
+    private static CartItem withQuantity(CartItem item, int quantity) {
+        return new CartItem(item.productId(), item.productName(), quantity, item.unitPrice(),
+                item.unitPrice().multiply(BigDecimal.valueOf(quantity)), item.currency());
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.itaipu.eventlog;
+
+import br.com.itaipu.repository.CartSnapshotRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+
+/**
+ * Grava em segundo plano um snapshot dos carrinhos que acumularam
+ * {@code cart.events.snapshot-every} eventos desde o anterior, limitando
+ * quantos eventos uma leitura sem cache precisa reaplicar.
+ */
+@ApplicationScoped
+public class CartSnapshotter {
+
+    private static final Logger LOG = Logger.getLogger(CartSnapshotter.class);
+
+    @Inject
+    CartEventLog cartEventLog;
+
+    @Inject
+    CartSnapshotRepository snapshotRepository;
+
+    @ConfigProperty(name = "cart.events.snapshot-every", defaultValue = "50")
+    int snapshotEvery;
+
+    @ConfigProperty(name = "cart.events.snapshot-batch-size", defaultValue = "100")
+    int batchSize;
+
+    @Scheduled(every = "{cart.events.snapshot-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void takeSnapshots() {
+        if (!cartEventLog.enabled()) {
+            return;
+        }
+
+        // Um lote por execução, em transação própria; o restante fica para a próxima
+        int taken = QuarkusTransaction.requiringNew().call(() -> {
+            List<String> cartIds = snapshotRepository.findStale(snapshotEvery, batchSize);
+            cartIds.forEach(cartEventLog::snapshot);
+            return cartIds.size();
+        });
+
+        if (taken > 0) {
+            LOG.debugf("%d snapshots de carrinho gravados", taken);
+        }
+    }
+}
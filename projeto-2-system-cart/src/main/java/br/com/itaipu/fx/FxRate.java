@@ -0,0 +1,15 @@
+package br.com.itaipu.fx;
+
+import java.math.BigDecimal;
+
+public record FxRate(
+    String from,
+    String to,
+    BigDecimal bid,     // Valor de compra usado na conversão
+    long fetchedAt      // Momento (epoch millis) da cotação na origem, conforme o timestamp da API de moedas
+) {
+
+    public long ageMillis() {
+        return System.currentTimeMillis() - fetchedAt;
+    }
+}
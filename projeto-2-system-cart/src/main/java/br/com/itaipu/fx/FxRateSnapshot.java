@@ -0,0 +1,276 @@
+package br.com.itaipu.fx;
+
+import br.com.itaipu.client.CurrencyApiClient;
+import br.com.itaipu.model.CurrencyQuote;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot local das taxas de câmbio usadas nos totais do carrinho, atualizado
+ * periodicamente em segundo plano. A leitura no caminho principal é feita sem
+ * lock nem rede.
+ * <p>
+ * Taxas mais antigas que {@code cart.fx.max-staleness} deixam de ser servidas.
+ * Pares ausentes do snapshot são buscados sob demanda em {@link #resolve}, todos
+ * ao mesmo tempo e sob um único prazo ({@code cart.fx.deadline}), e passam a ser
+ * atualizados junto com os demais. Dentro de transações use {@link #lookup}, que
+ * nunca acessa a rede.
+ */
+@ApplicationScoped
+public class FxRateSnapshot {
+
+    private static final Logger LOG = Logger.getLogger(FxRateSnapshot.class);
+
+    @Inject
+    @RestClient
+    CurrencyApiClient currencyApiClient;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "cart.fx.bases", defaultValue = "BRL")
+    List<String> bases;
+
+    @ConfigProperty(name = "cart.fx.currencies", defaultValue = "USD,EUR")
+    List<String> currencies;
+
+    @ConfigProperty(name = "cart.fx.max-staleness", defaultValue = "PT10M")
+    Duration maxStaleness;
+
+    @ConfigProperty(name = "cart.fx.deadline", defaultValue = "PT0.5S")
+    Duration deadline;
+
+    @ConfigProperty(name = "cart.fx.max-size", defaultValue = "100")
+    int maxSize;
+
+    // Por quanto tempo um par que falhou deixa de ser buscado sob demanda
+    @ConfigProperty(name = "cart.fx.failure-ttl", defaultValue = "PT1M")
+    Duration failureTtl;
+
+    private final Map<String, FxRate> rates = new ConcurrentHashMap<>();
+
+    // Pares que falharam na busca sob demanda (moeda desconhecida, timeout), com o momento em que expiram
+    private final Map<String, Long> failures = new ConcurrentHashMap<>();
+
+    void onStart(@Observes StartupEvent ev) {
+        // Carrega o primeiro snapshot sem atrasar a inicialização
+        Infrastructure.getDefaultWorkerPool().execute(this::refresh);
+    }
+
+    /**
+     * Retorna a taxa do par no snapshot, ou null se ausente ou mais antiga que o limite configurado.
+     */
+    public FxRate get(String from, String to) {
+        FxRate rate = rates.get(key(from, to));
+        if (rate == null || rate.ageMillis() > maxStaleness.toMillis()) {
+            return null;
+        }
+        return rate;
+    }
+
+    public List<String> currencies() {
+        return currencies;
+    }
+
+    /**
+     * Taxas de {@code base} para as moedas de {@code targets} presentes no snapshot, sem
+     * buscar as ausentes. Usada nas respostas das mutações, que ainda seguram conexão e
+     * locks: as moedas que faltarem saem como ausentes em vez de esperar pela rede.
+     */
+    public Map<String, FxRate> lookup(String base, List<String> targets) {
+        Map<String, FxRate> found = new HashMap<>();
+        for (String target : targets) {
+            FxRate rate = get(base, target);
+            if (rate != null) {
+                found.put(target, rate);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Resolve as taxas de {@code base} para cada moeda de {@code targets}. As moedas
+     * fora do snapshot são buscadas concorrentemente; as que não chegarem dentro do
+     * prazo ficam fora do mapa retornado.
+     */
+    public Map<String, FxRate> resolve(String base, List<String> targets) {
+        return resolveAsync(base, targets).await().indefinitely();
+    }
+
+    /**
+     * Variante não bloqueante de {@link #resolve}.
+     */
+    public Uni<Map<String, FxRate>> resolveAsync(String base, List<String> targets) {
+        Map<String, FxRate> resolved = lookup(base, targets);
+        List<String> misses = targets.stream()
+                .filter(target -> !resolved.containsKey(target) && !target.equals(base))
+                .filter(target -> !recentlyFailed(key(base, target)))
+                .collect(Collectors.toList());
+        if (misses.isEmpty()) {
+            return Uni.createFrom().item(resolved);
+        }
+
+        // Cada chamada recebe o mesmo prazo: como partem juntas, o total fica limitado a um único prazo
+        List<Uni<FxRate>> calls = misses.stream()
+                .map(target -> fetchAsync(base, target)
+                        .ifNoItem().after(deadline).fail()
+                        .onFailure().invoke(e -> {
+                            LOG.debugf("Taxa %s-%s indisponível: %s", base, target, e.getMessage());
+                            markFailed(key(base, target));
+                        })
+                        .onFailure().recoverWithNull())
+                .collect(Collectors.toList());
+        return Uni.join().all(calls).andFailFast()
+                .map(fetched -> {
+                    for (FxRate rate : fetched) {
+                        if (rate == null) {
+                            continue;
+                        }
+                        store(rate);
+                        if (rate.ageMillis() > maxStaleness.toMillis()) {
+                            // Cotação antiga na origem (ex.: a última conhecida, com o upstream fora)
+                            markFailed(key(base, rate.to()));
+                        } else {
+                            resolved.put(rate.to(), rate);
+                        }
+                    }
+                    return resolved;
+                });
+    }
+
+    @Scheduled(every = "{cart.fx.refresh-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refresh() {
+        // Pares configurados mais os que entraram no snapshot sob demanda, agrupados por moeda base
+        Map<String, Set<String>> targetsByBase = new LinkedHashMap<>();
+        for (String base : bases) {
+            currencies.stream()
+                    .filter(currency -> !currency.equals(base))
+                    .forEach(currency -> targetsByBase.computeIfAbsent(base, b -> new LinkedHashSet<>()).add(currency));
+        }
+        rates.values().forEach(rate -> targetsByBase.computeIfAbsent(rate.from(), b -> new LinkedHashSet<>()).add(rate.to()));
+
+        // Taxas que falharem nesta rodada continuam no snapshot até atingirem o limite de idade
+        targetsByBase.forEach((base, targets) -> {
+            try {
+                for (CurrencyQuote quote : fetch(base, List.copyOf(targets))) {
+                    store(toRate(quote));
+                }
+            } catch (Exception e) {
+                LOG.warnf("Falha ao atualizar taxas de %s: %s", base, e.getMessage());
+            }
+        });
+    }
+
+    private List<CurrencyQuote> fetch(String base, List<String> targets) {
+        String joined = String.join(",", targets);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<CurrencyQuote> quotes = currencyApiClient.getQuotes(base, joined);
+            sample.stop(currencyClientTimer(pairTag(base, targets), "success"));
+            return quotes;
+        } catch (RuntimeException e) {
+            sample.stop(currencyClientTimer(pairTag(base, targets), outcome(e)));
+            throw e;
+        }
+    }
+
+    private Uni<FxRate> fetchAsync(String from, String to) {
+        return Uni.createFrom().deferred(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return currencyApiClient.getQuoteAsync(from, to)
+                    .map(FxRateSnapshot::toRate)
+                    .onTermination().invoke((rate, failure, cancelled) ->
+                            sample.stop(currencyClientTimer(pairTag(from, List.of(to)), cancelled ? "cancelled" : outcome(failure))));
+        });
+    }
+
+    private void store(FxRate rate) {
+        String key = key(rate.from(), rate.to());
+        // Pares pedidos sob demanda não podem crescer o snapshot sem limite
+        if (rates.size() < maxSize || rates.containsKey(key)) {
+            // Uma cotação mais antiga que a do snapshot não o substitui
+            rates.merge(key, rate, (current, candidate) -> candidate.fetchedAt() >= current.fetchedAt() ? candidate : current);
+        }
+    }
+
+    private boolean recentlyFailed(String key) {
+        Long until = failures.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        failures.remove(key, until);
+        return false;
+    }
+
+    private void markFailed(String key) {
+        long now = System.currentTimeMillis();
+        if (failures.size() >= maxSize) {
+            failures.values().removeIf(until -> until <= now);
+        }
+        // Com o mapa cheio de falhas ainda válidas, o par volta a ser buscado na próxima vez
+        if (failures.size() < maxSize || failures.containsKey(key)) {
+            failures.put(key, now + failureTtl.toMillis());
+        }
+    }
+
+    // A idade da taxa é a da cotação na origem (timestamp em segundos), não a da cópia local
+    private static FxRate toRate(CurrencyQuote quote) {
+        long now = System.currentTimeMillis();
+        long quotedAt = quote.timestamp() != null ? Math.min(quote.timestamp() * 1000, now) : now;
+        return new FxRate(quote.code(), quote.codein(), quote.bid(), quotedAt);
+    }
+
+    private Timer currencyClientTimer(String pair, String outcome) {
+        return Timer.builder("currency.client.requests")
+                .description("Chamadas à API de moedas por par e resultado")
+                .tag("pair", pair)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Só pares configurados viram tag: moedas pedidas pelos clientes ficam agrupadas em "other"
+    private String pairTag(String base, List<String> targets) {
+        if (bases.contains(base) && currencies.containsAll(targets)) {
+            return base + "-" + String.join(",", targets);
+        }
+        return "other";
+    }
+
+    private static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "success";
+        }
+        if (failure instanceof WebApplicationException web) {
+            return web.getResponse().getStatus() < 500 ? "client_error" : "server_error";
+        }
+        return "error";
+    }
+
+    static String key(String from, String to) {
+        return from + "-" + to;
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.itaipu.metrics;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Conta os comandos SQL executados por cada método anotado (ou por todos os
+ * métodos da classe) e publica em {@code cart.db.statements}, com a tag method.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface MeteredQueries {
+}
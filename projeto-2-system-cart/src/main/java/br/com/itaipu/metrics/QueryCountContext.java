@@ -0,0 +1,34 @@
+package br.com.itaipu.metrics;
+
+/**
+ * Contador de comandos SQL do método em execução na thread atual.
+ */
+final class QueryCountContext {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    private QueryCountContext() {
+    }
+
+    static boolean begin() {
+        if (CURRENT.get() != null) {
+            // Chamada aninhada: os comandos contam para o método mais externo
+            return false;
+        }
+        CURRENT.set(new int[1]);
+        return true;
+    }
+
+    static int end() {
+        int[] counter = CURRENT.get();
+        CURRENT.remove();
+        return counter == null ? 0 : counter[0];
+    }
+
+    static void increment() {
+        int[] counter = CURRENT.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+    }
+}
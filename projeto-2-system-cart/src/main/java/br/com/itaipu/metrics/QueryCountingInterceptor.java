@@ -0,0 +1,42 @@
+package br.com.itaipu.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+@MeteredQueries
+@Interceptor
+// Por fora do @Transactional (PLATFORM_BEFORE + 200): conta e cronometra também o flush e o commit
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class QueryCountingInterceptor {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @AroundInvoke
+    Object countQueries(InvocationContext context) throws Exception {
+        if (!QueryCountContext.begin()) {
+            return context.proceed();
+        }
+        String method = context.getMethod().getDeclaringClass().getSimpleName() + "." + context.getMethod().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return context.proceed();
+        } finally {
+            sample.stop(Timer.builder("cart.service.requests")
+                    .description("Duração dos métodos de serviço, incluindo o acesso ao banco")
+                    .tag("method", method)
+                    .register(meterRegistry));
+            DistributionSummary.builder("cart.db.statements")
+                    .description("Comandos SQL executados por método de serviço")
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(QueryCountContext.end());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.itaipu.metrics;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+@ApplicationScoped
+@PersistenceUnitExtension
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCountContext.increment();
+        return sql;
+    }
+}
@@ -8,5 +8,8 @@ public record Cart(
     List<CartItem> items,
     BigDecimal totalPrice,
     String defaultCurrency,
-    List<CartTotal> totalsInOtherCurrencies
+    List<CartTotal> totalsInOtherCurrencies,
+    List<String> missingCurrencies, // Moedas solicitadas cuja taxa não chegou dentro do prazo
+    CartStatus status,
+    long version                    // Versão do carrinho, também enviada no header ETag
 ) {} 
\ No newline at end of file
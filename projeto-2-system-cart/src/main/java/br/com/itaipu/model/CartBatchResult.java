@@ -0,0 +1,8 @@
+package br.com.itaipu.model;
+
+import java.util.List;
+
+public record CartBatchResult(
+    Cart cart,                  // Carrinho após aplicar as operações válidas
+    List<CartItemError> errors  // Operações rejeitadas, sem afetar as demais
+) {}
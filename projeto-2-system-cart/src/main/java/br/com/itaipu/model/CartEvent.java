@@ -0,0 +1,15 @@
+package br.com.itaipu.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CartEvent(
+    long version,           // Versão do carrinho após o evento
+    CartEventType type,
+    Long productId,
+    String productName,
+    Integer quantity,
+    BigDecimal unitPrice,   // Preço do produto no momento da inclusão
+    String currency,
+    LocalDateTime occurredAt
+) {}
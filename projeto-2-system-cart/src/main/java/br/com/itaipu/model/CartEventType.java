@@ -0,0 +1,8 @@
+package br.com.itaipu.model;
+
+public enum CartEventType {
+    ITEM_ADDED,         // Unidades adicionadas ao item do produto (criando-o se necessário)
+    QUANTITY_CHANGED,   // Nova quantidade do item
+    ITEM_REMOVED,       // Item removido do carrinho
+    CLEARED             // Todos os itens removidos
+}
@@ -0,0 +1,7 @@
+package br.com.itaipu.model;
+
+public record CartItemError(
+    int index,          // Posição da operação na lista enviada
+    Long productId,
+    String message
+) {}
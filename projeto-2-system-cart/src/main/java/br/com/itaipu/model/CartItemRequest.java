@@ -0,0 +1,6 @@
+package br.com.itaipu.model;
+
+public record CartItemRequest(
+    Long productId,
+    Integer quantity    // Unidades a adicionar ao carrinho
+) {}
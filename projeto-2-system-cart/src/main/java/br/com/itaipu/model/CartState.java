@@ -0,0 +1,17 @@
+package br.com.itaipu.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Estado persistido do carrinho, sem os totais em outras moedas, que dependem
+ * das taxas do momento da leitura.
+ */
+public record CartState(
+    String cartId,
+    List<CartItem> items,
+    BigDecimal totalPrice,
+    String defaultCurrency,
+    CartStatus status,
+    long version
+) {}
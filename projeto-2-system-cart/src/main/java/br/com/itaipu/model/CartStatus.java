@@ -0,0 +1,6 @@
+package br.com.itaipu.model;
+
+public enum CartStatus {
+    OPEN,           // Aceita alterações
+    CHECKED_OUT     // Convertido em pedido; não aceita mais alterações
+}
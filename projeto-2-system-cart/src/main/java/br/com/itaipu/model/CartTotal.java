@@ -4,5 +4,6 @@ import java.math.BigDecimal;
 
 public record CartTotal(
     String currency,
-    BigDecimal total
+    BigDecimal total,
+    long rateAgeMillis  // Idade da taxa de câmbio do snapshot usada na conversão
 ) {} 
\ No newline at end of file
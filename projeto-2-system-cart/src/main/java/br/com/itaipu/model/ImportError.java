@@ -0,0 +1,6 @@
+package br.com.itaipu.model;
+
+public record ImportError(
+    long line,          // Linha do arquivo (1 = primeira linha)
+    String message
+) {}
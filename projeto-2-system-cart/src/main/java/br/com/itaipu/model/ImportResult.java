@@ -0,0 +1,11 @@
+package br.com.itaipu.model;
+
+import java.util.List;
+
+public record ImportResult(
+    long imported,              // Produtos gravados
+    long rejected,              // Linhas ignoradas por erro de formato, validação ou gravação
+    List<ImportError> errors,   // Primeiros erros encontrados (limitados)
+    long elapsedMillis,
+    long rowsPerSecond
+) {}
@@ -0,0 +1,16 @@
+package br.com.itaipu.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record Order(
+    String orderId,
+    String cartId,
+    List<CartItem> items,
+    BigDecimal totalPrice,
+    String currency,
+    List<OrderTotal> totalsInOtherCurrencies,
+    List<String> missingCurrencies, // Moedas solicitadas cuja taxa não chegou dentro do prazo
+    LocalDateTime createdAt
+) {}
@@ -0,0 +1,9 @@
+package br.com.itaipu.model;
+
+import java.math.BigDecimal;
+
+public record OrderTotal(
+    String currency,
+    BigDecimal rate,    // Taxa usada na conversão, registrada no pedido
+    BigDecimal total
+) {}
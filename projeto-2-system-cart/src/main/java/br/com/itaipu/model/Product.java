@@ -8,5 +8,6 @@ public record Product(
     String description,
     BigDecimal price,
     String category,
-    Integer stock
+    Integer stock,      // Unidades disponíveis (não reservadas)
+    String currency
 ) {} 
\ No newline at end of file
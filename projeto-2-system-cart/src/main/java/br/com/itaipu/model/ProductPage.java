@@ -0,0 +1,8 @@
+package br.com.itaipu.model;
+
+import java.util.List;
+
+public record ProductPage(
+    List<Product> items,
+    Long nextCursor     // Id a enviar em "after" para obter a próxima página (null na última)
+) {}
@@ -0,0 +1,8 @@
+package br.com.itaipu.model;
+
+import java.util.List;
+
+public record ProductSearchResult(
+    List<Product> items,    // Página de produtos, do mais para o menos relevante
+    int total               // Total de produtos que casam com a busca
+) {}
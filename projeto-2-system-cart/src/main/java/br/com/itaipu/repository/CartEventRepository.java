@@ -0,0 +1,19 @@
+package br.com.itaipu.repository;
+
+import br.com.itaipu.entity.CartEventEntity;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+
+@ApplicationScoped
+public class CartEventRepository implements PanacheRepository<CartEventEntity> {
+    
+    public List<CartEventEntity> findAfter(String cartId, long version) {
+        return list("cartId = ?1 and version > ?2", Sort.by("version"), cartId, version);
+    }
+    
+    public List<CartEventEntity> findByCartId(String cartId) {
+        return list("cartId", Sort.by("version"), cartId);
+    }
+}
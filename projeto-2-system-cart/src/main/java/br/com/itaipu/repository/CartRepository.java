@@ -1,17 +1,120 @@
 package br.com.itaipu.repository;
 
 import br.com.itaipu.entity.CartEntity;
+import br.com.itaipu.model.CartStatus;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @ApplicationScoped
 public class CartRepository implements PanacheRepository<CartEntity> {
     
+    // Valor de lock.timeout que o Hibernate traduz para SKIP LOCKED
+    private static final int SKIP_LOCKED = -2;
+    
     public CartEntity findByCartId(String cartId) {
         return find("cartId", cartId).firstResult();
     }
     
+    // Lê só a versão, sem carregar o carrinho nem os itens
+    public Long findVersionByCartId(String cartId) {
+        return getEntityManager()
+                .createQuery("select c.version from CartEntity c where c.cartId = :cartId", Long.class)
+                .setParameter("cartId", cartId)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+    
+    // Lê só a moeda padrão, que não muda depois da criação do carrinho
+    public String findDefaultCurrencyByCartId(String cartId) {
+        return getEntityManager()
+                .createQuery("select c.defaultCurrency from CartEntity c where c.cartId = :cartId", String.class)
+                .setParameter("cartId", cartId)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+    
+    /**
+     * Avança a versão do carrinho de {@code expected} para {@code next} e marca a atividade,
+     * sem carregar a entidade. Retorna false se outra transação já alterou o carrinho.
+     */
+    public boolean advanceVersion(String cartId, long expected, long next) {
+        return getEntityManager()
+                .createQuery("update CartEntity c set c.version = :next, c.updatedAt = :now where c.cartId = :cartId and c.version = :expected")
+                .setParameter("next", next)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("cartId", cartId)
+                .setParameter("expected", expected)
+                .executeUpdate() > 0;
+    }
+    
+    /**
+     * Marca o carrinho como finalizado se ainda estiver aberto e na versão {@code expected}.
+     * O UPDATE bloqueia a linha até o commit, de modo que mutações concorrentes falham na versão.
+     */
+    public boolean closeCart(String cartId, long expected) {
+        return getEntityManager()
+                .createQuery("update CartEntity c set c.status = :closed, c.version = c.version + 1, c.updatedAt = :now "
+                        + "where c.cartId = :cartId and c.version = :expected and c.status = :open")
+                .setParameter("closed", CartStatus.CHECKED_OUT)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("cartId", cartId)
+                .setParameter("expected", expected)
+                .setParameter("open", CartStatus.OPEN)
+                .executeUpdate() > 0;
+    }
+    
     public boolean existsByCartId(String cartId) {
         return count("cartId", cartId) > 0;
     }
-} 
\ No newline at end of file
+    
+    // Há algum carrinho aberto com o produto entre os itens
+    public boolean existsOpenWithProduct(Long productId) {
+        return getEntityManager()
+                .createQuery("select count(i) from CartItemEntity i where i.productId = :productId and i.cart.status = :open", Long.class)
+                .setParameter("productId", productId)
+                .setParameter("open", CartStatus.OPEN)
+                .getSingleResult() > 0;
+    }
+    
+    // Até limit carrinhos abertos sem alteração desde cutoff, sem bloqueio
+    public List<String> findIdleCartIds(LocalDateTime cutoff, int limit) {
+        return getEntityManager()
+                .createQuery("select c.cartId from CartEntity c where c.updatedAt < :cutoff and c.status = :open order by c.updatedAt", String.class)
+                .setParameter("cutoff", cutoff)
+                .setParameter("open", CartStatus.OPEN)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    /**
+     * Bloqueia, entre {@code cartIds}, os carrinhos que continuam abertos e sem alteração
+     * desde {@code cutoff}, pulando os que estão bloqueados por requisições em andamento
+     * (SKIP LOCKED). Retorna [id, cartId] sem carregar as entidades nem os itens.
+     */
+    public List<Object[]> lockIdleCarts(Collection<String> cartIds, LocalDateTime cutoff) {
+        return getEntityManager()
+                .createQuery("select c.id, c.cartId from CartEntity c "
+                        + "where c.cartId in :cartIds and c.updatedAt < :cutoff and c.status = :open", Object[].class)
+                .setParameter("cartIds", cartIds)
+                .setParameter("cutoff", cutoff)
+                .setParameter("open", CartStatus.OPEN)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("jakarta.persistence.lock.timeout", SKIP_LOCKED)
+                .getResultList();
+    }
+    
+    // Remove itens e carrinhos com comandos em lote, sem passar pelas entidades
+    public void deleteWithItems(Collection<Long> ids) {
+        getEntityManager()
+                .createQuery("delete from CartItemEntity i where i.cart.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        delete("id in ?1", ids);
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.itaipu.repository;
+
+import br.com.itaipu.entity.CartSnapshotEntity;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class CartSnapshotRepository implements PanacheRepository<CartSnapshotEntity> {
+    
+    public CartSnapshotEntity findByCartId(String cartId) {
+        return find("cartId", cartId).firstResult();
+    }
+    
+    /**
+     * Carrinhos com pelo menos {@code every} eventos desde o último snapshot (ou desde a criação),
+     * os alterados há mais tempo primeiro.
+     * <p>
+     * Compara o último evento do log, e não a versão da linha do carrinho, que o checkout
+     * também avança: um carrinho acabado de gravar em snapshot nunca volta ao lote.
+     */
+    public List<String> findStale(int every, int limit) {
+        return getEntityManager()
+                .createQuery("select c.cartId from CartEntity c where "
+                        + "(select max(e.version) from CartEventEntity e where e.cartId = c.cartId) >= "
+                        + "coalesce((select s.version from CartSnapshotEntity s where s.cartId = c.cartId), 0) + :every "
+                        + "order by c.updatedAt, c.id", String.class)
+                .setParameter("every", (long) every)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    public long deleteByCartIds(Collection<String> cartIds) {
+        return delete("cartId in ?1", cartIds);
+    }
+}
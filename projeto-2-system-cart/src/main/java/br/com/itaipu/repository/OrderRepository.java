@@ -0,0 +1,9 @@
+package br.com.itaipu.repository;
+
+import br.com.itaipu.entity.OrderEntity;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class OrderRepository implements PanacheRepository<OrderEntity> {
+}
@@ -1,18 +1,129 @@
 package br.com.itaipu.repository;
 
+import br.com.itaipu.catalog.StockChanged;
 import br.com.itaipu.entity.ProductEntity;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
 
 @ApplicationScoped
 public class ProductRepository implements PanacheRepository<ProductEntity> {
     
+    private static final String RETURNING = " returning id, stock, version";
+    
     public List<ProductEntity> findByCategory(String category) {
         return find("category", category).list();
     }
     
-    public List<ProductEntity> findByNameContaining(String name) {
-        return find("name like ?1", "%" + name + "%").list();
+    /**
+     * Percorre os produtos (de uma categoria, ou todos se null) em ordem de id com um
+     * cursor do banco, sem materializar o resultado: a sessão é limpa a cada
+     * {@code fetchSize} linhas para que o uso de memória não cresça com o catálogo.
+     * Deve ser chamado dentro de uma transação.
+     */
+    public void scroll(String category, int fetchSize, Consumer<ProductEntity> consumer) {
+        Session session = getEntityManager().unwrap(Session.class);
+        var query = category == null
+                ? session.createSelectionQuery("from ProductEntity order by id", ProductEntity.class)
+                : session.createSelectionQuery("from ProductEntity where category = :category order by id", ProductEntity.class)
+                        .setParameter("category", category);
+        try (ScrollableResults<ProductEntity> results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            int count = 0;
+            while (results.next()) {
+                consumer.accept(results.get());
+                if (++count % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+        }
+    }
+    
+    // Bloqueia os produtos em ordem de id, sem carregar as entidades
+    public void lockByIds(Collection<Long> ids) {
+        getEntityManager()
+                .createQuery("select p.id from ProductEntity p where p.id in :ids order by p.id", Long.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+    
+    /**
+     * Retira {@code quantity} unidades do estoque em um único comando condicional e retorna
+     * o estoque e a versão resultantes (RETURNING), ou null se o estoque disponível for
+     * insuficiente (ou o produto não existir).
+     */
+    public StockChanged decrementStock(Long productId, int quantity) {
+        return single(nativeUpdate("update products set stock = stock - :quantity, version = version + 1 "
+                        + "where id = :id and stock >= :quantity" + RETURNING)
+                .setParameter("quantity", quantity)
+                .setParameter("id", productId));
+    }
+    
+    // Retorna o estoque e a versão resultantes, ou null se o produto não existir
+    public StockChanged incrementStock(Long productId, int quantity) {
+        return single(nativeUpdate("update products set stock = stock + :quantity, version = version + 1 where id = :id" + RETURNING)
+                .setParameter("quantity", quantity)
+                .setParameter("id", productId));
+    }
+    
+    /**
+     * Retira as quantidades de vários produtos em um único UPDATE condicional
+     * ({@code stock >= quantidade} por produto) e retorna o estoque resultante dos produtos
+     * alterados: se forem menos que {@code quantities.size()}, faltou estoque e a transação
+     * deve ser desfeita. Quantidades negativas devolvem unidades ao estoque. A ordem por id
+     * mantém a mesma sequência de locks entre transações concorrentes.
+     */
+    public List<StockChanged> decrementStockBatch(SortedMap<Long, Integer> quantities) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < quantities.size(); i++) {
+            values.append(i == 0 ? "" : ", ").append("(:id").append(i).append(", :quantity").append(i).append(")");
+        }
+        Query query = nativeUpdate("update products p set stock = p.stock - d.quantity, version = p.version + 1 "
+                + "from (values " + values + ") as d(id, quantity) "
+                + "where p.id = d.id and p.stock >= d.quantity returning p.id, p.stock, p.version");
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            query.setParameter("id" + i, entry.getKey());
+            query.setParameter("quantity" + i, entry.getValue());
+            i++;
+        }
+        return toStockChanges(query.getResultList());
+    }
+    
+    // Sincronizado só com a tabela de produtos: o flush automático não grava (nem bloqueia) carrinhos antes da hora
+    private Query nativeUpdate(String sql) {
+        return getEntityManager().createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(ProductEntity.class);
+    }
+    
+    private static StockChanged single(Query query) {
+        List<StockChanged> changes = toStockChanges(query.getResultList());
+        return changes.isEmpty() ? null : changes.get(0);
+    }
+    
+    // Linhas [id, stock, version] do RETURNING
+    private static List<StockChanged> toStockChanges(List<?> rows) {
+        List<StockChanged> changes = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            changes.add(new StockChanged(((Number) columns[0]).longValue(), ((Number) columns[1]).intValue(),
+                    ((Number) columns[2]).longValue()));
+        }
+        return changes;
     }
 } 
\ No newline at end of file
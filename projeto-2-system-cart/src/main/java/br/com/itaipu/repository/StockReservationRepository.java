@@ -0,0 +1,64 @@
+package br.com.itaipu.repository;
+
+import br.com.itaipu.entity.StockReservationEntity;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class StockReservationRepository implements PanacheRepository<StockReservationEntity> {
+    
+    // Bloqueia a reserva do carrinho (não o produto) para serializar apenas as mutações do mesmo carrinho
+    public StockReservationEntity findForUpdate(String cartId, Long productId) {
+        return find("cartId = ?1 and productId = ?2", cartId, productId)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .firstResult();
+    }
+    
+    // Bloqueia as reservas do carrinho para que a expiração não devolva ao estoque unidades em checkout
+    public List<StockReservationEntity> findByCartIdForUpdate(String cartId) {
+        return find("cartId", cartId)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .list();
+    }
+    
+    // Bloqueia as reservas dos carrinhos em ordem de produto e retorna os produtos envolvidos
+    public List<Long> lockProductIdsByCartIds(Collection<String> cartIds) {
+        return getEntityManager()
+                .createQuery("select r.productId from StockReservationEntity r where r.cartId in :cartIds order by r.productId, r.cartId", Long.class)
+                .setParameter("cartIds", cartIds)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+    
+    public List<StockReservationEntity> findByCartId(String cartId) {
+        return find("cartId", cartId).list();
+    }
+    
+    public List<StockReservationEntity> findExpired(LocalDateTime now, int limit) {
+        return find("expiresAt < ?1 order by expiresAt", now).page(0, limit).list();
+    }
+    
+    // Quantidade reservada por produto para um conjunto de carrinhos: [productId, soma]
+    public List<Object[]> sumQuantityByProduct(Collection<String> cartIds) {
+        return getEntityManager()
+                .createQuery("select r.productId, sum(r.quantity) from StockReservationEntity r where r.cartId in :cartIds group by r.productId order by r.productId", Object[].class)
+                .setParameter("cartIds", cartIds)
+                .getResultList();
+    }
+    
+    public boolean existsByProductId(Long productId) {
+        return count("productId", productId) > 0;
+    }
+    
+    public long deleteByCartIds(Collection<String> cartIds) {
+        return delete("cartId in ?1", cartIds);
+    }
+    
+    public boolean deleteIfExpired(Long id, LocalDateTime now) {
+        return delete("id = ?1 and expiresAt < ?2", id, now) > 0;
+    }
+}
@@ -0,0 +1,174 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.entity.CartEntity;
+import br.com.itaipu.entity.CartItemEntity;
+import br.com.itaipu.fx.FxRate;
+import br.com.itaipu.fx.FxRateSnapshot;
+import br.com.itaipu.model.Cart;
+import br.com.itaipu.model.CartItem;
+import br.com.itaipu.model.CartState;
+import br.com.itaipu.model.CartTotal;
+import br.com.itaipu.model.Product;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Regras de montagem do carrinho compartilhadas pelas pilhas de persistência:
+ * alteração dos itens na entidade, cálculo do total e conversão do estado para
+ * a resposta, com os totais em outras moedas.
+ */
+@ApplicationScoped
+public class CartAssembler {
+
+    @Inject
+    FxRateSnapshot fxRateSnapshot;
+
+    @ConfigProperty(name = "cart.fx.max-currencies", defaultValue = "10")
+    int maxCurrencies;
+
+    List<String> defaultCurrencies() {
+        return fxRateSnapshot.currencies();
+    }
+
+    // Adiciona as unidades ao item do produto (criando-o se necessário) e retorna a nova quantidade
+    int applyAdd(CartEntity cartEntity, Product product, int quantity) {
+        CartItemEntity existingItem = findItem(cartEntity, product.id());
+        
+        if (existingItem != null) {
+            existingItem.quantity += quantity;
+            existingItem.totalPrice = existingItem.unitPrice.multiply(BigDecimal.valueOf(existingItem.quantity));
+            return existingItem.quantity;
+        }
+        
+        CartItemEntity newItem = new CartItemEntity();
+        newItem.cart = cartEntity;
+        newItem.productId = product.id();
+        newItem.productName = product.name();
+        newItem.quantity = quantity;
+        newItem.unitPrice = product.price();
+        newItem.totalPrice = product.price().multiply(BigDecimal.valueOf(quantity));
+        newItem.currency = product.currency();
+        
+        cartEntity.items.add(newItem);
+        return quantity;
+    }
+
+    int currentQuantity(CartEntity cartEntity, Long productId) {
+        CartItemEntity item = findItem(cartEntity, productId);
+        return item == null ? 0 : item.quantity;
+    }
+
+    CartItemEntity findItem(CartEntity cartEntity, Long productId) {
+        return cartEntity.items.stream()
+                .filter(item -> item.productId.equals(productId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    void recalculateTotal(CartEntity cartEntity) {
+        BigDecimal total = cartEntity.items.stream()
+                .map(item -> item.totalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        
+        cartEntity.totalPrice = total;
+    }
+
+    CartState toState(CartEntity cartEntity) {
+        List<CartItem> items = cartEntity.items.stream()
+                .map(this::convertToCartItem)
+                .collect(Collectors.toList());
+        return new CartState(cartEntity.cartId, items, cartEntity.totalPrice, cartEntity.defaultCurrency, cartEntity.status, cartEntity.version);
+    }
+
+    /**
+     * Monta a resposta de uma mutação nas moedas padrão só com as taxas já presentes no
+     * snapshot: é chamada com a transação aberta, e uma busca na API de moedas seguraria a
+     * conexão e os locks das linhas de produto durante a chamada.
+     */
+    Cart toCartFromSnapshot(CartState state) {
+        List<String> targets = targets(state, defaultCurrencies());
+        return toCart(state, targets, fxRateSnapshot.lookup(state.defaultCurrency(), targets));
+    }
+
+    Cart toCart(CartState state, List<String> currencies) {
+        List<String> targets = targets(state, currencies);
+        return toCart(state, targets, fxRateSnapshot.resolve(state.defaultCurrency(), targets));
+    }
+
+    private Cart toCart(CartState state, List<String> targets, Map<String, FxRate> rates) {
+        List<CartTotal> totalsInOtherCurrencies = new ArrayList<>();
+        List<String> missingCurrencies = new ArrayList<>();
+        for (String currency : targets) {
+            FxRate rate = rates.get(currency);
+            if (rate != null) {
+                BigDecimal convertedTotal = state.totalPrice().multiply(rate.bid());
+                totalsInOtherCurrencies.add(new CartTotal(currency, convertedTotal, rate.ageMillis()));
+            } else {
+                missingCurrencies.add(currency);
+            }
+        }
+        
+        return new Cart(
+                state.cartId(),
+                state.items(),
+                state.totalPrice(),
+                state.defaultCurrency(),
+                totalsInOtherCurrencies,
+                missingCurrencies,
+                state.status(),
+                state.version()
+        );
+    }
+
+    private static List<String> targets(CartState state, List<String> currencies) {
+        return currencies.stream()
+                .filter(currency -> !currency.equals(state.defaultCurrency()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Variante de {@link #toCart} que não bloqueia enquanto busca as taxas ausentes do snapshot.
+     */
+    Uni<Cart> toCartAsync(CartState state, List<String> currencies) {
+        List<String> targets = targets(state, currencies);
+        return fxRateSnapshot.resolveAsync(state.defaultCurrency(), targets)
+                .map(rates -> toCart(state, targets, rates));
+    }
+
+    private CartItem convertToCartItem(CartItemEntity itemEntity) {
+        return new CartItem(
+                itemEntity.productId,
+                itemEntity.productName,
+                itemEntity.quantity,
+                itemEntity.unitPrice,
+                itemEntity.totalPrice,
+                itemEntity.currency
+        );
+    }
+
+    List<String> parseCurrencies(String currencies) {
+        if (currencies == null || currencies.isBlank()) {
+            return fxRateSnapshot.currencies();
+        }
+        List<String> parsed = Arrays.stream(currencies.split(","))
+                .map(String::trim)
+                .filter(currency -> !currency.isEmpty())
+                .map(String::toUpperCase)
+                .distinct()
+                .collect(Collectors.toList());
+        if (parsed.size() > maxCurrencies) {
+            throw new WebApplicationException("Máximo de " + maxCurrencies + " moedas por requisição", 400);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.cache.CartCache;
+import br.com.itaipu.repository.CartRepository;
+import br.com.itaipu.repository.CartSnapshotRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Remove carrinhos sem alteração há mais de {@code cart.expiry.ttl}, devolvendo
+ * ao estoque as unidades que reservavam.
+ * <p>
+ * Cada lote tem sua própria transação e usa apenas comandos em lote. Os locks
+ * seguem a ordem das mutações do carrinho (reservas, produtos e por último o
+ * carrinho), de modo que o reaper e uma mutação concorrente não se bloqueiam
+ * mutuamente. Carrinhos bloqueados por requisições em andamento, ou alterados
+ * desde a seleção, são pulados (SKIP LOCKED), e há uma pausa entre lotes para
+ * não disputar conexões e locks com o tráfego normal.
+ */
+@ApplicationScoped
+public class CartReaper {
+
+    private static final Logger LOG = Logger.getLogger(CartReaper.class);
+
+    @Inject
+    CartRepository cartRepository;
+
+    @Inject
+    CartSnapshotRepository cartSnapshotRepository;
+
+    @Inject
+    StockReservationService stockReservationService;
+
+    @Inject
+    CartCache cartCache;
+
+    @ConfigProperty(name = "cart.expiry.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "cart.expiry.ttl", defaultValue = "P7D")
+    Duration ttl;
+
+    @ConfigProperty(name = "cart.expiry.batch-size", defaultValue = "200")
+    int batchSize;
+
+    @ConfigProperty(name = "cart.expiry.batch-pause", defaultValue = "PT0.2S")
+    Duration batchPause;
+
+    @ConfigProperty(name = "cart.expiry.max-batches", defaultValue = "50")
+    int maxBatches;
+
+    @Scheduled(every = "{cart.expiry.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reap() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        int total = 0;
+        // Limite de lotes por execução: o restante fica para a próxima
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int reaped = reapBatch(cutoff);
+            total += reaped;
+            if (reaped < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(batchPause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (total > 0) {
+            LOG.infof("%d carrinhos abandonados removidos", total);
+        }
+    }
+
+    private int reapBatch(LocalDateTime cutoff) {
+        List<String> cartIds = QuarkusTransaction.requiringNew().call(() -> {
+            List<String> candidates = cartRepository.findIdleCartIds(cutoff, batchSize);
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+            stockReservationService.lockForRelease(candidates);
+            List<Object[]> carts = cartRepository.lockIdleCarts(candidates, cutoff);
+            if (carts.isEmpty()) {
+                return List.of();
+            }
+            List<Long> ids = carts.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+            List<String> reaped = carts.stream().map(row -> (String) row[1]).collect(Collectors.toList());
+            stockReservationService.releaseAll(reaped);
+            cartRepository.deleteWithItems(ids);
+            // Os eventos do log ficam como trilha de auditoria; só o snapshot sai junto com o carrinho
+            cartSnapshotRepository.deleteByCartIds(reaped);
+            return reaped;
+        });
+        // Somente após o commit: até lá o carrinho ainda existe para as leituras
+        cartIds.forEach(cartCache::invalidate);
+        return cartIds.size();
+    }
+}
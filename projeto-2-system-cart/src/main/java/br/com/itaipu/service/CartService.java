@@ -1,38 +1,71 @@
 package br.com.itaipu.service;
 
-import br.com.itaipu.client.CurrencyApiClient;
+import br.com.itaipu.cache.CartCache;
+import br.com.itaipu.catalog.ProductCatalog;
 import br.com.itaipu.entity.CartEntity;
 import br.com.itaipu.entity.CartItemEntity;
-import br.com.itaipu.entity.ProductEntity;
+import br.com.itaipu.eventlog.CartEventLog;
+import br.com.itaipu.metrics.MeteredQueries;
 import br.com.itaipu.model.Cart;
-import br.com.itaipu.model.CartItem;
-import br.com.itaipu.model.CartTotal;
-import br.com.itaipu.model.CurrencyQuote;
+import br.com.itaipu.model.CartBatchResult;
+import br.com.itaipu.model.CartEvent;
+import br.com.itaipu.model.CartItemError;
+import br.com.itaipu.model.CartItemRequest;
+import br.com.itaipu.model.CartState;
+import br.com.itaipu.model.CartStatus;
+import br.com.itaipu.model.Product;
 import br.com.itaipu.repository.CartRepository;
-import br.com.itaipu.repository.ProductRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.WebApplicationException;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.exception.ConstraintViolationException;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
+@MeteredQueries
 public class CartService {
 
     @Inject
     CartRepository cartRepository;
     
     @Inject
-    ProductRepository productRepository;
+    ProductCatalog productCatalog;
     
     @Inject
-    @RestClient
-    CurrencyApiClient currencyApiClient;
+    StockReservationService stockReservationService;
+
+    @Inject
+    CartAssembler cartAssembler;
+
+    @Inject
+    CartCache cartCache;
+
+    // Com cart.events.enabled, as mutações gravam eventos em vez de alterar os itens
+    @Inject
+    CartEventLog cartEventLog;
+
+    @Inject
+    EventSourcedCartService eventSourcedCarts;
+
+    // Disparado a cada mutação; o CartCache só o recebe depois do commit
+    @Inject
+    Event<CartState> cartChanged;
+
+    @ConfigProperty(name = "cart.batch.max-items", defaultValue = "100")
+    int batchMaxItems;
 
     @Transactional
     public Cart createCart() {
@@ -44,81 +77,157 @@ public class CartService {
         
         cartRepository.persist(cartEntity);
         
-        return convertToCart(cartEntity);
+        return publish(cartEntity);
     }
 
-    public Cart getCart(String cartId) {
-        CartEntity cartEntity = cartRepository.findByCartId(cartId);
-        if (cartEntity == null) {
-            throw new WebApplicationException("Carrinho não encontrado", 404);
+    /**
+     * Retorna o carrinho com os totais convertidos para as moedas informadas
+     * (separadas por vírgula), ou para as moedas padrão quando {@code currencies} é vazio.
+     */
+    public Cart getCart(String cartId, String currencies) {
+        List<String> targets = cartAssembler.parseCurrencies(currencies);
+        CartState state = cartCache.get(cartId);
+        if (state == null) {
+            CartEntity cartEntity = cartRepository.findByCartId(cartId);
+            if (cartEntity == null) {
+                throw new WebApplicationException("Carrinho não encontrado", 404);
+            }
+            state = cartEventLog.enabled() ? cartEventLog.load(cartEntity) : cartAssembler.toState(cartEntity);
+            cartCache.populate(state);
         }
         
-        return convertToCart(cartEntity);
+        return cartAssembler.toCart(state, targets);
     }
 
-    @Transactional
-    public Cart addItem(String cartId, Long productId, Integer quantity) {
-        CartEntity cartEntity = cartRepository.findByCartId(cartId);
-        if (cartEntity == null) {
+    /**
+     * Versão atual do carrinho, lida do cache ou só da linha do carrinho, sem os itens.
+     */
+    public long getCartVersion(String cartId) {
+        CartState state = cartCache.get(cartId);
+        if (state != null) {
+            return state.version();
+        }
+        Long version = cartRepository.findVersionByCartId(cartId);
+        if (version == null) {
+            throw new WebApplicationException("Carrinho não encontrado", 404);
+        }
+        return version;
+    }
+
+    /**
+     * Eventos do carrinho em ordem, quando o log de eventos está habilitado.
+     */
+    public List<CartEvent> getCartEvents(String cartId) {
+        if (!cartRepository.existsByCartId(cartId)) {
             throw new WebApplicationException("Carrinho não encontrado", 404);
         }
+        return cartEventLog.history(cartId);
+    }
+
+    /**
+     * Nas mutações, {@code expectedVersion} (do header If-Match) é opcional: quando
+     * informada e diferente da versão atual, a operação falha com 412. Duas mutações
+     * concorrentes sobre a mesma versão nunca são ambas aplicadas: a segunda falha com 409.
+     */
+    @Transactional
+    public Cart addItem(String cartId, Long productId, Integer quantity, Long expectedVersion) {
+        if (quantity == null || quantity <= 0) {
+            throw new WebApplicationException("Quantidade inválida", 400);
+        }
+        if (cartEventLog.enabled()) {
+            return eventSourcedCarts.addItem(cartId, productId, quantity, expectedVersion);
+        }
+        
+        CartEntity cartEntity = findCart(cartId, expectedVersion);
         
-        ProductEntity product = productRepository.findById(productId);
+        Product product = productCatalog.get(productId);
         if (product == null) {
             throw new WebApplicationException("Produto não encontrado", 404);
         }
         
-        if (product.stock < quantity) {
-            throw new WebApplicationException("Estoque insuficiente", 400);
+        int reservedQuantity = cartAssembler.applyAdd(cartEntity, product, quantity);
+        
+        // Recalcular total
+        cartAssembler.recalculateTotal(cartEntity);
+        
+        // Reserva por último, para manter o lock da linha do produto só até o commit
+        stockReservationService.reserve(cartId, productId, reservedQuantity);
+        
+        return publish(cartEntity);
+    }
+
+    /**
+     * Aplica várias adições ao carrinho em uma única transação, com os produtos
+     * lidos do catálogo em memória e um único recálculo do total. Operações inválidas ou
+     * sem estoque são reportadas sem impedir as demais.
+     */
+    @Transactional
+    public CartBatchResult addItems(String cartId, List<CartItemRequest> requests, Long expectedVersion) {
+        if (requests == null || requests.isEmpty()) {
+            throw new WebApplicationException("Lista de itens é obrigatória", 400);
+        }
+        if (requests.size() > batchMaxItems) {
+            throw new WebApplicationException("Máximo de " + batchMaxItems + " itens por requisição", 400);
+        }
+        if (cartEventLog.enabled()) {
+            return eventSourcedCarts.addItems(cartId, requests, expectedVersion);
         }
         
-        // Verificar se o item já existe no carrinho
-        CartItemEntity existingItem = cartEntity.items.stream()
-                .filter(item -> item.productId.equals(productId))
-                .findFirst()
-                .orElse(null);
+        CartEntity cartEntity = findCart(cartId, expectedVersion);
         
-        if (existingItem != null) {
-            existingItem.quantity += quantity;
-            existingItem.totalPrice = existingItem.unitPrice.multiply(BigDecimal.valueOf(existingItem.quantity));
-        } else {
-            CartItemEntity newItem = new CartItemEntity();
-            newItem.cart = cartEntity;
-            newItem.productId = productId;
-            newItem.productName = product.name;
-            newItem.quantity = quantity;
-            newItem.unitPrice = product.price;
-            newItem.totalPrice = product.price.multiply(BigDecimal.valueOf(quantity));
-            newItem.currency = product.currency;
-            
-            cartEntity.items.add(newItem);
+        List<Long> productIds = requests.stream()
+                .map(CartItemRequest::productId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Product> products = productCatalog.getAll(productIds);
+        
+        List<CartItemError> errors = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CartItemRequest request = requests.get(i);
+            if (request.quantity() == null || request.quantity() <= 0) {
+                errors.add(new CartItemError(i, request.productId(), "Quantidade inválida"));
+                continue;
+            }
+            Product product = products.get(request.productId());
+            if (product == null) {
+                errors.add(new CartItemError(i, request.productId(), "Produto não encontrado"));
+                continue;
+            }
+            // Reserva antes de alterar o carrinho, para que uma linha sem estoque não deixe rastros
+            int newQuantity = cartAssembler.currentQuantity(cartEntity, product.id()) + request.quantity();
+            if (!stockReservationService.tryReserve(cartId, product.id(), newQuantity)) {
+                errors.add(new CartItemError(i, request.productId(), "Estoque insuficiente"));
+                continue;
+            }
+            cartAssembler.applyAdd(cartEntity, product, request.quantity());
         }
         
-        // Recalcular total
-        recalculateTotal(cartEntity);
+        cartAssembler.recalculateTotal(cartEntity);
         
-        return convertToCart(cartEntity);
+        return new CartBatchResult(publish(cartEntity), errors);
     }
 
     @Transactional
-    public Cart removeItem(String cartId, Long productId) {
-        CartEntity cartEntity = cartRepository.findByCartId(cartId);
-        if (cartEntity == null) {
-            throw new WebApplicationException("Carrinho não encontrado", 404);
+    public Cart removeItem(String cartId, Long productId, Long expectedVersion) {
+        if (cartEventLog.enabled()) {
+            return eventSourcedCarts.removeItem(cartId, productId, expectedVersion);
         }
+        CartEntity cartEntity = findCart(cartId, expectedVersion);
         
         cartEntity.items.removeIf(item -> item.productId.equals(productId));
-        recalculateTotal(cartEntity);
+        cartAssembler.recalculateTotal(cartEntity);
+        stockReservationService.reserve(cartId, productId, 0);
         
-        return convertToCart(cartEntity);
+        return publish(cartEntity);
     }
 
     @Transactional
-    public Cart updateItemQuantity(String cartId, Long productId, Integer quantity) {
-        CartEntity cartEntity = cartRepository.findByCartId(cartId);
-        if (cartEntity == null) {
-            throw new WebApplicationException("Carrinho não encontrado", 404);
+    public Cart updateItemQuantity(String cartId, Long productId, Integer quantity, Long expectedVersion) {
+        if (cartEventLog.enabled()) {
+            return eventSourcedCarts.updateItemQuantity(cartId, productId, quantity, expectedVersion);
         }
+        CartEntity cartEntity = findCart(cartId, expectedVersion);
         
         CartItemEntity item = cartEntity.items.stream()
                 .filter(i -> i.productId.equals(productId))
@@ -128,86 +237,71 @@ public class CartService {
         if (quantity <= 0) {
             cartEntity.items.remove(item);
         } else {
-            ProductEntity product = productRepository.findById(productId);
-            if (product.stock < quantity) {
-                throw new WebApplicationException("Estoque insuficiente", 400);
-            }
-            
             item.quantity = quantity;
             item.totalPrice = item.unitPrice.multiply(BigDecimal.valueOf(quantity));
         }
         
-        recalculateTotal(cartEntity);
+        cartAssembler.recalculateTotal(cartEntity);
+        stockReservationService.reserve(cartId, productId, Math.max(quantity, 0));
         
-        return convertToCart(cartEntity);
+        return publish(cartEntity);
     }
 
     @Transactional
-    public Cart clearCart(String cartId) {
-        CartEntity cartEntity = cartRepository.findByCartId(cartId);
-        if (cartEntity == null) {
-            throw new WebApplicationException("Carrinho não encontrado", 404);
+    public Cart clearCart(String cartId, Long expectedVersion) {
+        if (cartEventLog.enabled()) {
+            return eventSourcedCarts.clearCart(cartId, expectedVersion);
         }
+        CartEntity cartEntity = findCart(cartId, expectedVersion);
         
         cartEntity.items.clear();
         cartEntity.totalPrice = BigDecimal.ZERO;
+        stockReservationService.releaseAll(cartId);
         
-        return convertToCart(cartEntity);
-    }
-
-    private void recalculateTotal(CartEntity cartEntity) {
-        BigDecimal total = cartEntity.items.stream()
-                .map(item -> item.totalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        cartEntity.totalPrice = total;
+        return publish(cartEntity);
     }
 
-    private Cart convertToCart(CartEntity cartEntity) {
-        List<CartItem> items = cartEntity.items.stream()
-                .map(this::convertToCartItem)
-                .collect(Collectors.toList());
-        
-        List<CartTotal> totalsInOtherCurrencies = getTotalsInOtherCurrencies(cartEntity);
-        
-        return new Cart(
-                cartEntity.cartId,
-                items,
-                cartEntity.totalPrice,
-                cartEntity.defaultCurrency,
-                totalsInOtherCurrencies
-        );
+    private CartEntity findCart(String cartId, Long expectedVersion) {
+        CartEntity cartEntity = cartRepository.findByCartId(cartId);
+        if (cartEntity == null) {
+            throw new WebApplicationException("Carrinho não encontrado", 404);
+        }
+        if (cartEntity.status != CartStatus.OPEN) {
+            throw new WebApplicationException("Carrinho já finalizado", 409);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(cartEntity.version)) {
+            throw new WebApplicationException("Carrinho alterado desde a versão " + expectedVersion, 412);
+        }
+        return cartEntity;
     }
 
-    private CartItem convertToCartItem(CartItemEntity itemEntity) {
-        return new CartItem(
-                itemEntity.productId,
-                itemEntity.productName,
-                itemEntity.quantity,
-                itemEntity.unitPrice,
-                itemEntity.totalPrice,
-                itemEntity.currency
-        );
+    // Publica o novo estado para o cache (após o commit) e monta a resposta a partir dele
+    private Cart publish(CartEntity cartEntity) {
+        // Toda mutação conta como atividade para a expiração de carrinhos abandonados
+        cartEntity.updatedAt = LocalDateTime.now();
+        // O flush incrementa a versão (UPDATE ... where version = ?) antes de montar o estado publicado
+        try {
+            cartRepository.flush();
+        } catch (OptimisticLockException e) {
+            throw new WebApplicationException("Carrinho alterado por outra requisição", 409);
+        } catch (PersistenceException e) {
+            // Primeira reserva do produto criada ao mesmo tempo por outra requisição no mesmo carrinho
+            if (isConstraintViolation(e)) {
+                throw new WebApplicationException("Carrinho alterado por outra requisição", 409);
+            }
+            throw e;
+        }
+        CartState state = cartAssembler.toState(cartEntity);
+        cartChanged.fire(state);
+        return cartAssembler.toCartFromSnapshot(state);
     }
 
-    private List<CartTotal> getTotalsInOtherCurrencies(CartEntity cartEntity) {
-        List<CartTotal> totals = new java.util.ArrayList<>();
-        
-        // Adicionar conversões para USD e EUR
-        String[] currencies = {"USD", "EUR"};
-        
-        for (String currency : currencies) {
-            if (!currency.equals(cartEntity.defaultCurrency)) {
-                try {
-                    CurrencyQuote quote = currencyApiClient.getQuote(cartEntity.defaultCurrency, currency);
-                    BigDecimal convertedTotal = cartEntity.totalPrice.multiply(quote.bid());
-                    totals.add(new CartTotal(currency, convertedTotal));
-                } catch (Exception e) {
-                    // Se a conversão falhar, não adicionar essa moeda
-                }
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
             }
         }
-        
-        return totals;
+        return false;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.cache.CartCache;
+import br.com.itaipu.catalog.StockChanged;
+import br.com.itaipu.entity.CartEntity;
+import br.com.itaipu.entity.OrderEntity;
+import br.com.itaipu.entity.OrderFxRate;
+import br.com.itaipu.entity.OrderItemEntity;
+import br.com.itaipu.entity.StockReservationEntity;
+import br.com.itaipu.eventlog.CartEventLog;
+import br.com.itaipu.fx.FxRate;
+import br.com.itaipu.fx.FxRateSnapshot;
+import br.com.itaipu.metrics.MeteredQueries;
+import br.com.itaipu.model.CartItem;
+import br.com.itaipu.model.CartState;
+import br.com.itaipu.model.CartStatus;
+import br.com.itaipu.model.Order;
+import br.com.itaipu.model.OrderTotal;
+import br.com.itaipu.repository.CartRepository;
+import br.com.itaipu.repository.OrderRepository;
+import br.com.itaipu.repository.ProductRepository;
+import br.com.itaipu.repository.StockReservationRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Converte um carrinho aberto em pedido, em uma única transação: fecha o carrinho,
+ * consome as reservas de estoque, grava o pedido com os preços e as taxas de câmbio
+ * do momento. As taxas são resolvidas antes de a transação começar, de modo que a
+ * busca das ausentes na API de moedas não segura uma conexão do pool.
+ * <p>
+ * As unidades já foram retiradas do estoque pelas reservas feitas ao incluir os itens,
+ * então, no caso comum, o checkout não toca nas linhas dos produtos, que são o ponto
+ * de disputa em uma venda relâmpago. Apenas a diferença entre o carrinho e as reservas
+ * (por exemplo, reservas expiradas) passa pelo estoque, em um único UPDATE condicional
+ * para todos os produtos; se faltar estoque para qualquer um deles, nada é gravado.
+ */
+@ApplicationScoped
+@MeteredQueries
+public class CheckoutService {
+
+    @Inject
+    CartRepository cartRepository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    StockReservationRepository reservationRepository;
+
+    @Inject
+    OrderRepository orderRepository;
+
+    @Inject
+    CartAssembler cartAssembler;
+
+    @Inject
+    CartEventLog cartEventLog;
+
+    @Inject
+    FxRateSnapshot fxRateSnapshot;
+
+    @Inject
+    CartCache cartCache;
+
+    // Observados após o commit pelo cache de carrinhos e pelo catálogo
+    @Inject
+    Event<CartState> cartChanged;
+
+    @Inject
+    Event<StockChanged> stockChanged;
+
+    public Order checkout(String cartId, String currencies, Long expectedVersion) {
+        List<String> targets = cartAssembler.parseCurrencies(currencies);
+        String base = defaultCurrency(cartId);
+        List<String> otherCurrencies = targets.stream()
+                .filter(currency -> !currency.equals(base))
+                .collect(Collectors.toList());
+        // Fora da transação: a busca das taxas ausentes pode esperar até cart.fx.deadline
+        Map<String, FxRate> rates = fxRateSnapshot.resolve(base, otherCurrencies);
+
+        return QuarkusTransaction.requiringNew().call(() -> placeOrder(cartId, otherCurrencies, rates, expectedVersion));
+    }
+
+    // A moeda padrão não muda depois da criação: o cache basta, e sem ele uma leitura curta
+    private String defaultCurrency(String cartId) {
+        CartState cached = cartCache.get(cartId);
+        if (cached != null) {
+            return cached.defaultCurrency();
+        }
+        String defaultCurrency = QuarkusTransaction.requiringNew().call(() -> cartRepository.findDefaultCurrencyByCartId(cartId));
+        if (defaultCurrency == null) {
+            throw new WebApplicationException("Carrinho não encontrado", 404);
+        }
+        return defaultCurrency;
+    }
+
+    private Order placeOrder(String cartId, List<String> otherCurrencies, Map<String, FxRate> rates, Long expectedVersion) {
+        CartEntity cartEntity = cartRepository.findByCartId(cartId);
+        if (cartEntity == null) {
+            throw new WebApplicationException("Carrinho não encontrado", 404);
+        }
+        if (cartEntity.status != CartStatus.OPEN) {
+            throw new WebApplicationException("Carrinho já finalizado", 409);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(cartEntity.version)) {
+            throw new WebApplicationException("Carrinho alterado desde a versão " + expectedVersion, 412);
+        }
+        CartState state = cartEventLog.enabled() ? cartEventLog.load(cartEntity) : cartAssembler.toState(cartEntity);
+        if (state.items().isEmpty()) {
+            throw new WebApplicationException("Carrinho vazio", 400);
+        }
+
+        // Reservas, produtos e só então o carrinho: a mesma ordem de locks das mutações,
+        // que reservam antes do flush do carrinho
+        SortedMap<Long, Integer> missing = missingUnits(cartId, state.items());
+        List<StockChanged> stockChanges = missing.isEmpty() ? List.of() : productRepository.decrementStockBatch(missing);
+        if (stockChanges.size() < missing.size()) {
+            throw new WebApplicationException("Estoque insuficiente", 409);
+        }
+        if (!cartRepository.closeCart(cartId, cartEntity.version)) {
+            throw new WebApplicationException("Carrinho alterado por outra requisição", 409);
+        }
+        reservationRepository.deleteByCartIds(List.of(cartId));
+
+        OrderEntity orderEntity = new OrderEntity();
+        orderEntity.orderId = UUID.randomUUID().toString();
+        orderEntity.cartId = cartId;
+        orderEntity.totalPrice = state.totalPrice();
+        orderEntity.currency = state.defaultCurrency();
+        orderEntity.createdAt = LocalDateTime.now();
+        for (CartItem item : state.items()) {
+            orderEntity.items.add(toOrderItem(orderEntity, item));
+        }
+
+        List<OrderTotal> totals = new ArrayList<>();
+        List<String> missingCurrencies = new ArrayList<>();
+        for (String currency : otherCurrencies) {
+            FxRate rate = rates.get(currency);
+            if (rate == null) {
+                missingCurrencies.add(currency);
+                continue;
+            }
+            OrderFxRate fxRate = new OrderFxRate();
+            fxRate.currency = currency;
+            fxRate.rate = rate.bid();
+            fxRate.fetchedAt = Instant.ofEpochMilli(rate.fetchedAt());
+            orderEntity.fxRates.add(fxRate);
+            totals.add(new OrderTotal(currency, rate.bid(), state.totalPrice().multiply(rate.bid())));
+        }
+        orderRepository.persist(orderEntity);
+
+        stockChanges.forEach(stockChanged::fire);
+        cartChanged.fire(new CartState(cartId, state.items(), state.totalPrice(), state.defaultCurrency(),
+                CartStatus.CHECKED_OUT, cartEntity.version + 1));
+
+        return new Order(orderEntity.orderId, cartId, state.items(), orderEntity.totalPrice, orderEntity.currency,
+                totals, missingCurrencies, orderEntity.createdAt);
+    }
+
+    // Diferença por produto entre o carrinho e as reservas; negativa quando sobra reserva
+    private SortedMap<Long, Integer> missingUnits(String cartId, List<CartItem> items) {
+        Map<Long, Integer> reserved = new HashMap<>();
+        for (StockReservationEntity reservation : reservationRepository.findByCartIdForUpdate(cartId)) {
+            reserved.put(reservation.productId, reservation.quantity);
+        }
+        SortedMap<Long, Integer> missing = new TreeMap<>();
+        for (CartItem item : items) {
+            int delta = item.quantity() - reserved.getOrDefault(item.productId(), 0);
+            if (delta != 0) {
+                missing.put(item.productId(), delta);
+            }
+            reserved.remove(item.productId());
+        }
+        reserved.forEach((productId, quantity) -> missing.put(productId, -quantity));
+        return missing;
+    }
+
+    private OrderItemEntity toOrderItem(OrderEntity orderEntity, CartItem item) {
+        OrderItemEntity orderItem = new OrderItemEntity();
+        orderItem.order = orderEntity;
+        orderItem.productId = item.productId();
+        orderItem.productName = item.productName();
+        orderItem.quantity = item.quantity();
+        orderItem.unitPrice = item.unitPrice();
+        orderItem.totalPrice = item.totalPrice();
+        orderItem.currency = item.currency();
+        return orderItem;
+    }
+}
@@ -0,0 +1,162 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.cache.CartCache;
+import br.com.itaipu.catalog.ProductCatalog;
+import br.com.itaipu.entity.CartEntity;
+import br.com.itaipu.eventlog.CartEventLog;
+import br.com.itaipu.eventlog.CartProjection;
+import br.com.itaipu.model.Cart;
+import br.com.itaipu.model.CartBatchResult;
+import br.com.itaipu.model.CartItemError;
+import br.com.itaipu.model.CartItemRequest;
+import br.com.itaipu.model.CartState;
+import br.com.itaipu.model.CartStatus;
+import br.com.itaipu.model.Product;
+import br.com.itaipu.repository.CartRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.WebApplicationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Mutações do {@link CartService} quando {@code cart.events.enabled=true}: o estado
+ * atual vem do cache (ou é reconstruído do log), as regras são aplicadas sobre a
+ * projeção e cada operação grava apenas os seus eventos. As validações, as reservas
+ * de estoque e a resposta são as mesmas do modelo por estado.
+ */
+@ApplicationScoped
+public class EventSourcedCartService {
+
+    @Inject
+    CartRepository cartRepository;
+
+    @Inject
+    ProductCatalog productCatalog;
+
+    @Inject
+    StockReservationService stockReservationService;
+
+    @Inject
+    CartEventLog cartEventLog;
+
+    @Inject
+    CartAssembler cartAssembler;
+
+    @Inject
+    CartCache cartCache;
+
+    @Inject
+    Event<CartState> cartChanged;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Cart addItem(String cartId, Long productId, int quantity, Long expectedVersion) {
+        CartProjection cart = open(cartId, expectedVersion);
+        Product product = productCatalog.get(productId);
+        if (product == null) {
+            throw new WebApplicationException("Produto não encontrado", 404);
+        }
+
+        cartEventLog.record(cart, CartEventLog.itemAdded(product, quantity));
+        CartState state = cartEventLog.save(cart);
+        stockReservationService.reserve(cartId, productId, cart.quantityOf(productId));
+        return publish(state);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public CartBatchResult addItems(String cartId, List<CartItemRequest> requests, Long expectedVersion) {
+        CartProjection cart = open(cartId, expectedVersion);
+        List<Long> productIds = requests.stream()
+                .map(CartItemRequest::productId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Product> products = productCatalog.getAll(productIds);
+
+        List<CartItemError> errors = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CartItemRequest request = requests.get(i);
+            if (request.quantity() == null || request.quantity() <= 0) {
+                errors.add(new CartItemError(i, request.productId(), "Quantidade inválida"));
+                continue;
+            }
+            Product product = products.get(request.productId());
+            if (product == null) {
+                errors.add(new CartItemError(i, request.productId(), "Produto não encontrado"));
+                continue;
+            }
+            int newQuantity = cart.quantityOf(product.id()) + request.quantity();
+            if (!stockReservationService.tryReserve(cartId, product.id(), newQuantity)) {
+                errors.add(new CartItemError(i, request.productId(), "Estoque insuficiente"));
+                continue;
+            }
+            cartEventLog.record(cart, CartEventLog.itemAdded(product, request.quantity()));
+        }
+
+        return new CartBatchResult(publish(cartEventLog.save(cart)), errors);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Cart removeItem(String cartId, Long productId, Long expectedVersion) {
+        CartProjection cart = open(cartId, expectedVersion);
+        if (cart.contains(productId)) {
+            cartEventLog.record(cart, CartEventLog.itemRemoved(productId));
+        }
+        CartState state = cartEventLog.save(cart);
+        stockReservationService.reserve(cartId, productId, 0);
+        return publish(state);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Cart updateItemQuantity(String cartId, Long productId, Integer quantity, Long expectedVersion) {
+        CartProjection cart = open(cartId, expectedVersion);
+        if (!cart.contains(productId)) {
+            throw new WebApplicationException("Item não encontrado no carrinho", 404);
+        }
+
+        cartEventLog.record(cart, quantity <= 0
+                ? CartEventLog.itemRemoved(productId)
+                : CartEventLog.quantityChanged(productId, quantity));
+        CartState state = cartEventLog.save(cart);
+        stockReservationService.reserve(cartId, productId, Math.max(quantity, 0));
+        return publish(state);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Cart clearCart(String cartId, Long expectedVersion) {
+        CartProjection cart = open(cartId, expectedVersion);
+        cartEventLog.record(cart, CartEventLog.cleared());
+        CartState state = cartEventLog.save(cart);
+        stockReservationService.releaseAll(cartId);
+        return publish(state);
+    }
+
+    private CartProjection open(String cartId, Long expectedVersion) {
+        CartState state = cartCache.get(cartId);
+        if (state == null) {
+            CartEntity cartEntity = cartRepository.findByCartId(cartId);
+            if (cartEntity == null) {
+                throw new WebApplicationException("Carrinho não encontrado", 404);
+            }
+            state = cartEventLog.load(cartEntity);
+        }
+        if (state.status() != CartStatus.OPEN) {
+            throw new WebApplicationException("Carrinho já finalizado", 409);
+        }
+        if (expectedVersion != null && expectedVersion != state.version()) {
+            throw new WebApplicationException("Carrinho alterado desde a versão " + expectedVersion, 412);
+        }
+        return CartProjection.of(state);
+    }
+
+    private Cart publish(CartState state) {
+        cartChanged.fire(state);
+        return cartAssembler.toCartFromSnapshot(state);
+    }
+}
@@ -0,0 +1,283 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.catalog.ProductCatalog;
+import br.com.itaipu.catalog.ProductChanged;
+import br.com.itaipu.entity.ProductEntity;
+import br.com.itaipu.model.ImportError;
+import br.com.itaipu.model.ImportResult;
+import br.com.itaipu.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa de produtos a partir de NDJSON (um {@link Product} por linha)
+ * ou CSV com cabeçalho ({@code name,description,price,category,stock[,currency]}).
+ * <p>
+ * A entrada é lida linha a linha, sem carregar o corpo inteiro, e gravada em
+ * blocos de {@code product.import.chunk-size} linhas, cada um em sua própria
+ * transação e com os INSERTs agrupados em lotes JDBC. Se a gravação de um bloco
+ * falhar, suas linhas são gravadas uma a uma, e só as que falharem de novo são
+ * reportadas como rejeitadas; os demais blocos seguem normalmente.
+ */
+@ApplicationScoped
+public class ProductImportService {
+
+    private static final Logger LOG = Logger.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final List<String> CSV_COLUMNS = List.of("name", "description", "price", "category", "stock", "currency");
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Event<ProductChanged> productChanged;
+
+    @ConfigProperty(name = "product.import.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "product.import.jdbc-batch-size", defaultValue = "100")
+    int jdbcBatchSize;
+
+    public ImportResult importProducts(InputStream input, Format format) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        Chunk chunk = new Chunk(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = format == Format.CSV ? readCsvHeader(reader) : null;
+            long lineNumber = header == null ? 0 : 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(lineNumber, toEntity(format == Format.CSV ? parseCsv(line, header) : objectMapper.readValue(line, Product.class)));
+                } catch (Exception e) {
+                    progress.reject(lineNumber, e.getMessage());
+                }
+                if (chunk.entities.size() == chunkSize) {
+                    writeChunk(chunk, progress, start);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.entities.isEmpty()) {
+            writeChunk(chunk, progress, start);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        ImportResult result = new ImportResult(progress.imported, progress.rejected, progress.errors,
+                elapsedMillis, progress.imported * 1000 / elapsedMillis);
+        LOG.infof("Importação concluída: %d produtos, %d linhas rejeitadas, %d linhas/s",
+                result.imported(), result.rejected(), result.rowsPerSecond());
+        return result;
+    }
+
+    private void writeChunk(Chunk chunk, Progress progress, long start) {
+        try {
+            persist(chunk.entities);
+            progress.imported += chunk.entities.size();
+        } catch (RuntimeException e) {
+            // A transação do bloco foi desfeita: grava linha a linha para isolar as que falham
+            LOG.warnf("Falha ao gravar bloco de %d produtos (linhas %d a %d), gravando linha a linha: %s",
+                    chunk.entities.size(), chunk.lines.get(0), chunk.lines.get(chunk.lines.size() - 1), e.getMessage());
+            for (int i = 0; i < chunk.entities.size(); i++) {
+                ProductEntity entity = chunk.entities.get(i);
+                try {
+                    persist(List.of(reset(entity)));
+                    progress.imported++;
+                } catch (RuntimeException rowFailure) {
+                    progress.reject(chunk.lines.get(i), "falha ao gravar: " + rootMessage(rowFailure));
+                }
+            }
+        }
+        chunk.clear();
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        LOG.infof("Importação em andamento: %d produtos (%d linhas/s)", progress.imported, progress.imported * 1000 / elapsedMillis);
+    }
+
+    private void persist(List<ProductEntity> entities) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Session session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(jdbcBatchSize);
+            try {
+                for (ProductEntity entity : entities) {
+                    session.persist(entity);
+                }
+                session.flush();
+                // O catálogo em memória recebe os produtos somente depois do commit do bloco
+                for (ProductEntity entity : entities) {
+                    productChanged.fire(new ProductChanged(entity.id, ProductCatalog.toProduct(entity), entity.version));
+                }
+            } finally {
+                session.clear();
+            }
+        });
+    }
+
+    // Depois de um rollback a entidade mantém o id e a versão atribuídos no persist
+    private static ProductEntity reset(ProductEntity entity) {
+        entity.id = null;
+        entity.version = null;
+        return entity;
+    }
+
+    private static String rootMessage(Throwable failure) {
+        Throwable root = failure;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private ProductEntity toEntity(Product product) {
+        if (product.name() == null || product.name().isBlank()) {
+            throw new IllegalArgumentException("name é obrigatório");
+        }
+        if (product.price() == null || product.price().signum() < 0) {
+            throw new IllegalArgumentException("price inválido");
+        }
+        if (product.category() == null || product.category().isBlank()) {
+            throw new IllegalArgumentException("category é obrigatório");
+        }
+        if (product.stock() == null || product.stock() < 0) {
+            throw new IllegalArgumentException("stock inválido");
+        }
+        ProductEntity entity = new ProductEntity();
+        entity.name = product.name();
+        entity.description = product.description();
+        entity.price = product.price();
+        entity.category = product.category();
+        entity.stock = product.stock();
+        entity.currency = product.currency() != null ? product.currency() : "BRL";
+        return entity;
+    }
+
+    private List<String> readCsvHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new WebApplicationException("Arquivo CSV vazio", 400);
+        }
+        List<String> header = splitCsv(line.startsWith("\uFEFF") ? line.substring(1) : line).stream()
+                .map(column -> column.trim().toLowerCase())
+                .collect(Collectors.toList());
+        for (String column : CSV_COLUMNS.subList(0, 5)) {
+            if (!header.contains(column)) {
+                throw new WebApplicationException("Coluna obrigatória ausente no CSV: " + column, 400);
+            }
+        }
+        return header;
+    }
+
+    private Product parseCsv(String line, List<String> header) {
+        List<String> values = splitCsv(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("esperadas " + header.size() + " colunas, encontradas " + values.size());
+        }
+        String currency = header.contains("currency") ? values.get(header.indexOf("currency")) : null;
+        return new Product(
+                null,
+                values.get(header.indexOf("name")),
+                values.get(header.indexOf("description")),
+                new BigDecimal(values.get(header.indexOf("price")).trim()),
+                values.get(header.indexOf("category")),
+                Integer.valueOf(values.get(header.indexOf("stock")).trim()),
+                currency == null || currency.isBlank() ? null : currency.trim()
+        );
+    }
+
+    // Separa uma linha CSV por vírgulas, respeitando campos entre aspas ("" representa uma aspa)
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    // Entidades do bloco atual e as linhas de origem, para reportar falhas de gravação
+    private static final class Chunk {
+        final List<ProductEntity> entities;
+        final List<Long> lines;
+
+        Chunk(int capacity) {
+            entities = new ArrayList<>(capacity);
+            lines = new ArrayList<>(capacity);
+        }
+
+        void add(long line, ProductEntity entity) {
+            lines.add(line);
+            entities.add(entity);
+        }
+
+        void clear() {
+            entities.clear();
+            lines.clear();
+        }
+    }
+
+    private static final class Progress {
+        long imported;
+        long rejected;
+        final List<ImportError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportError(line, message));
+            }
+        }
+    }
+}
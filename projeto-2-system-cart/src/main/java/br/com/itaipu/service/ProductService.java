@@ -1,13 +1,23 @@
 package br.com.itaipu.service;
 
+import br.com.itaipu.catalog.ProductCatalog;
+import br.com.itaipu.catalog.ProductChanged;
+import br.com.itaipu.catalog.StockChanged;
 import br.com.itaipu.entity.ProductEntity;
 import br.com.itaipu.model.Product;
+import br.com.itaipu.model.ProductPage;
+import br.com.itaipu.model.ProductSearchResult;
+import br.com.itaipu.repository.CartRepository;
 import br.com.itaipu.repository.ProductRepository;
+import br.com.itaipu.repository.StockReservationRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
 import jakarta.ws.rs.WebApplicationException;
-import java.util.List;
-import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.util.function.Consumer;
 
 @ApplicationScoped
 public class ProductService {
@@ -15,32 +25,73 @@ public class ProductService {
     @Inject
     ProductRepository productRepository;
 
-    public List<Product> getAllProducts() {
-        return productRepository.listAll().stream()
-                .map(this::convertToProduct)
-                .collect(Collectors.toList());
+    @Inject
+    ProductCatalog productCatalog;
+
+    @Inject
+    StockReservationRepository reservationRepository;
+
+    @Inject
+    CartRepository cartRepository;
+
+    @Inject
+    Event<ProductChanged> productChanged;
+
+    @Inject
+    Event<StockChanged> stockChanged;
+
+    @ConfigProperty(name = "product.page.max-size", defaultValue = "100")
+    int maxPageSize;
+
+    @ConfigProperty(name = "product.stream.fetch-size", defaultValue = "500")
+    int streamFetchSize;
+
+    // Leituras servidas pelo catálogo em memória, sem acesso ao banco
+    public ProductPage getProducts(Long after, int limit) {
+        validatePageSize(limit);
+        return productCatalog.page(after, limit);
+    }
+
+    public ProductPage getProductsByCategory(String category, Long after, int limit) {
+        validatePageSize(limit);
+        return productCatalog.pageByCategory(category, after, limit);
+    }
+
+    /**
+     * Entrega todos os produtos (ou os de uma categoria) lidos do banco por cursor,
+     * um a um, para serialização em streaming sem materializar a lista.
+     */
+    @Transactional
+    public void streamProducts(String category, Consumer<Product> consumer) {
+        productRepository.scroll(category, streamFetchSize, entity -> consumer.accept(ProductCatalog.toProduct(entity)));
     }
 
     public Product getProduct(Long id) {
-        ProductEntity productEntity = productRepository.findById(id);
-        if (productEntity == null) {
+        Product product = productCatalog.get(id);
+        if (product == null) {
             throw new WebApplicationException("Produto não encontrado", 404);
         }
-        return convertToProduct(productEntity);
+        return product;
     }
 
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category).stream()
-                .map(this::convertToProduct)
-                .collect(Collectors.toList());
+    public ProductSearchResult searchProducts(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new WebApplicationException("Parâmetro de busca é obrigatório", 400);
+        }
+        if (page < 0) {
+            throw new WebApplicationException("Paginação inválida: page deve ser maior ou igual a 0", 400);
+        }
+        validatePageSize(size);
+        return productCatalog.search(query, page * size, size);
     }
 
-    public List<Product> searchProducts(String name) {
-        return productRepository.findByNameContaining(name).stream()
-                .map(this::convertToProduct)
-                .collect(Collectors.toList());
+    private void validatePageSize(int size) {
+        if (size <= 0 || size > maxPageSize) {
+            throw new WebApplicationException("Paginação inválida: tamanho deve estar entre 1 e " + maxPageSize, 400);
+        }
     }
 
+    @Transactional
     public Product createProduct(Product product) {
         ProductEntity productEntity = new ProductEntity();
         productEntity.name = product.name();
@@ -48,13 +99,14 @@ public class ProductService {
         productEntity.price = product.price();
         productEntity.category = product.category();
         productEntity.stock = product.stock();
-        productEntity.currency = "BRL";
+        productEntity.currency = product.currency() != null ? product.currency() : "BRL";
         
         productRepository.persist(productEntity);
         
-        return convertToProduct(productEntity);
+        return publish(productEntity);
     }
 
+    @Transactional
     public Product updateProduct(Long id, Product product) {
         ProductEntity productEntity = productRepository.findById(id);
         if (productEntity == null) {
@@ -67,38 +119,46 @@ public class ProductService {
         productEntity.category = product.category();
         productEntity.stock = product.stock();
         
-        return convertToProduct(productEntity);
+        return publish(productEntity);
     }
 
+    /**
+     * Remove o produto se nenhum carrinho aberto o contém. O lock da linha do produto
+     * serializa a remoção com as reservas, que também alteram a linha.
+     */
+    @Transactional
     public void deleteProduct(Long id) {
-        ProductEntity productEntity = productRepository.findById(id);
+        ProductEntity productEntity = productRepository.findById(id, LockModeType.PESSIMISTIC_WRITE);
         if (productEntity == null) {
             throw new WebApplicationException("Produto não encontrado", 404);
         }
+        // Com o produto removido, esses carrinhos não conseguiriam mais finalizar a compra
+        if (reservationRepository.existsByProductId(id) || cartRepository.existsOpenWithProduct(id)) {
+            throw new WebApplicationException("Produto presente em carrinhos abertos", 409);
+        }
         
         productRepository.delete(productEntity);
+        productChanged.fire(ProductChanged.removed(id));
     }
 
+    @Transactional
     public void updateStock(Long productId, Integer quantity) {
-        ProductEntity productEntity = productRepository.findById(productId);
-        if (productEntity == null) {
-            throw new WebApplicationException("Produto não encontrado", 404);
-        }
-        
-        productEntity.stock -= quantity;
-        if (productEntity.stock < 0) {
+        // Baixa condicional em um único comando, sem ler e regravar o estoque
+        StockChanged change = productRepository.decrementStock(productId, quantity);
+        if (change == null) {
+            if (productRepository.findById(productId) == null) {
+                throw new WebApplicationException("Produto não encontrado", 404);
+            }
             throw new WebApplicationException("Estoque insuficiente", 400);
         }
+        stockChanged.fire(change);
     }
 
-    private Product convertToProduct(ProductEntity productEntity) {
-        return new Product(
-                productEntity.id,
-                productEntity.name,
-                productEntity.description,
-                productEntity.price,
-                productEntity.category,
-                productEntity.stock
-        );
+    private Product publish(ProductEntity productEntity) {
+        // O flush incrementa a versão, que ordena este evento em relação aos de estoque
+        productRepository.flush();
+        Product product = ProductCatalog.toProduct(productEntity);
+        productChanged.fire(new ProductChanged(product.id(), product, productEntity.version));
+        return product;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.catalog.StockChanged;
+import br.com.itaipu.entity.StockReservationEntity;
+import br.com.itaipu.repository.ProductRepository;
+import br.com.itaipu.repository.StockReservationRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reservas de estoque por carrinho. O estoque do produto passa a representar
+ * apenas as unidades disponíveis: cada item no carrinho retira sua quantidade
+ * com um UPDATE condicional ({@code stock >= quantidade}), de modo que dois
+ * carrinhos nunca reservam a mesma unidade.
+ * <p>
+ * Reservas sem atividade por {@code cart.reservation.ttl} expiram e devolvem as
+ * unidades ao estoque.
+ */
+@ApplicationScoped
+public class StockReservationService {
+
+    private static final Logger LOG = Logger.getLogger(StockReservationService.class);
+
+    @Inject
+    StockReservationRepository reservationRepository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    // Mantém o estoque exibido pelo catálogo em memória após o commit
+    @Inject
+    Event<StockChanged> stockChanged;
+
+    @ConfigProperty(name = "cart.reservation.ttl", defaultValue = "PT30M")
+    Duration ttl;
+
+    @ConfigProperty(name = "cart.reservation.reap-batch-size", defaultValue = "500")
+    int reapBatchSize;
+
+    /**
+     * Ajusta a reserva do produto no carrinho para {@code quantity} unidades,
+     * retirando ou devolvendo ao estoque apenas a diferença.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void reserve(String cartId, Long productId, int quantity) {
+        if (!tryReserve(cartId, productId, quantity)) {
+            throw new WebApplicationException("Estoque insuficiente", 400);
+        }
+    }
+
+    /**
+     * Variante de {@link #reserve} que retorna false em vez de lançar exceção quando
+     * falta estoque, sem marcar a transação para rollback.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public boolean tryReserve(String cartId, Long productId, int quantity) {
+        StockReservationEntity reservation = reservationRepository.findForUpdate(cartId, productId);
+        int reserved = reservation == null ? 0 : reservation.quantity;
+        int delta = quantity - reserved;
+
+        StockChanged change = null;
+        if (delta > 0) {
+            change = productRepository.decrementStock(productId, delta);
+            if (change == null) {
+                return false;
+            }
+        } else if (delta < 0) {
+            change = productRepository.incrementStock(productId, -delta);
+        }
+        if (change != null) {
+            stockChanged.fire(change);
+        }
+
+        if (quantity <= 0) {
+            if (reservation != null) {
+                reservationRepository.delete(reservation);
+            }
+            return true;
+        }
+        if (reservation == null) {
+            reservation = new StockReservationEntity();
+            reservation.cartId = cartId;
+            reservation.productId = productId;
+            reservationRepository.persist(reservation);
+        }
+        reservation.quantity = quantity;
+        reservation.expiresAt = LocalDateTime.now().plus(ttl);
+        return true;
+    }
+
+    /**
+     * Devolve ao estoque todas as unidades reservadas pelo carrinho.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void releaseAll(String cartId) {
+        for (StockReservationEntity reservation : reservationRepository.findByCartId(cartId)) {
+            release(reservation.productId, reservation.quantity);
+            reservationRepository.delete(reservation);
+        }
+    }
+
+    /**
+     * Bloqueia as reservas dos carrinhos e, em ordem de id, os produtos que elas
+     * envolvem: a mesma ordem das mutações (reserva, produto e só então o carrinho),
+     * para que quem devolve reservas em lote não bloqueie o carrinho antes do produto.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void lockForRelease(Collection<String> cartIds) {
+        List<Long> productIds = reservationRepository.lockProductIdsByCartIds(cartIds).stream()
+                .distinct()
+                .toList();
+        if (!productIds.isEmpty()) {
+            productRepository.lockByIds(productIds);
+        }
+    }
+
+    /**
+     * Devolve ao estoque as reservas de vários carrinhos com comandos em lote:
+     * um UPDATE por produto envolvido e um único DELETE das reservas.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void releaseAll(Collection<String> cartIds) {
+        if (cartIds.isEmpty()) {
+            return;
+        }
+        for (Object[] row : reservationRepository.sumQuantityByProduct(cartIds)) {
+            Long productId = (Long) row[0];
+            int quantity = ((Number) row[1]).intValue();
+            release(productId, quantity);
+        }
+        reservationRepository.deleteByCartIds(cartIds);
+    }
+
+    // Devolve as unidades ao estoque; produto removido não gera evento
+    private void release(Long productId, int quantity) {
+        StockChanged change = productRepository.incrementStock(productId, quantity);
+        if (change != null) {
+            stockChanged.fire(change);
+        }
+    }
+
+    @Scheduled(every = "{cart.reservation.reap-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void expireReservations() {
+        int expired;
+        int total = 0;
+        do {
+            // Um lote por transação, para não manter locks de produtos durante toda a varredura
+            expired = QuarkusTransaction.requiringNew().call(this::expireBatch);
+            total += expired;
+        } while (expired == reapBatchSize);
+
+        if (total > 0) {
+            LOG.infof("%d reservas de estoque expiradas devolvidas ao estoque", total);
+        }
+    }
+
+    private int expireBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservationEntity> batch = reservationRepository.findExpired(now, reapBatchSize);
+        for (StockReservationEntity reservation : batch) {
+            // A condição é reavaliada no DELETE: uma reserva renovada no meio tempo é mantida
+            if (reservationRepository.deleteIfExpired(reservation.id, now)) {
+                release(reservation.productId, reservation.quantity);
+            }
+        }
+        return batch.size();
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.itaipu.api;
+
+import br.com.itaipu.service.ReactiveCartService;
+import io.quarkus.arc.profile.IfBuildProfile;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+/**
+ * Mesmas operações principais do {@link CartResource}, servidas pela pilha reativa.
+ * Os dois caminhos ficam disponíveis no mesmo build para que possam ser comparados
+ * sob a mesma carga (ver loadtest/cart-stacks.js).
+ */
+@Path("/api/reactive/cart")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Reactive Cart API", description = "Operações de carrinho sobre Hibernate Reactive")
+@IfBuildProfile("reactive")
+public class ReactiveCartResource {
+
+    @Inject
+    ReactiveCartService cartService;
+
+    @POST
+    @Operation(summary = "Criar novo carrinho", description = "Cria um novo carrinho de compras")
+    public Uni<Response> createCart() {
+        return cartService.createCart()
+                .map(cart -> Response.status(Response.Status.CREATED).entity(cart).build())
+                .onFailure().recoverWithItem(e -> Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Erro ao criar carrinho: " + e.getMessage())
+                        .build());
+    }
+
+    @GET
+    @Path("/{cartId}")
+    @Operation(summary = "Obter carrinho", description = "Retorna os detalhes de um carrinho específico, com os totais nas moedas informadas em currencies (ex: USD,EUR,GBP)")
+    public Uni<Response> getCart(@PathParam("cartId") String cartId, @QueryParam("currencies") String currencies) {
+        return cartService.getCart(cartId, currencies)
+                .map(cart -> Response.ok(cart).build())
+                .onFailure().recoverWithItem(e -> Response.status(Response.Status.NOT_FOUND)
+                        .entity("Carrinho não encontrado: " + e.getMessage())
+                        .build());
+    }
+
+    @POST
+    @Path("/{cartId}/items")
+    @Operation(summary = "Adicionar item ao carrinho", description = "Adiciona um produto ao carrinho")
+    public Uni<Response> addItem(
+            @PathParam("cartId") String cartId,
+            @QueryParam("productId") Long productId,
+            @QueryParam("quantity") Integer quantity) {
+        return cartService.addItem(cartId, productId, quantity)
+                .map(cart -> Response.ok(cart).build())
+                .onFailure().recoverWithItem(e -> Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Erro ao adicionar item: " + e.getMessage())
+                        .build());
+    }
+
+    @DELETE
+    @Path("/{cartId}/items/{productId}")
+    @Operation(summary = "Remover item do carrinho", description = "Remove um produto do carrinho")
+    public Uni<Response> removeItem(
+            @PathParam("cartId") String cartId,
+            @PathParam("productId") Long productId) {
+        return cartService.removeItem(cartId, productId)
+                .map(cart -> Response.ok(cart).build())
+                .onFailure().recoverWithItem(e -> Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Erro ao remover item: " + e.getMessage())
+                        .build());
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.itaipu.repository;
+
+import br.com.itaipu.entity.CartEntity;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+/**
+ * Consultas de carrinho sobre o Hibernate Reactive, na sessão recebida do chamador.
+ */
+@ApplicationScoped
+public class ReactiveCartRepository {
+    
+    // Os itens vêm na mesma consulta: a sessão reativa não carrega coleções sob demanda
+    public Uni<CartEntity> findByCartId(Mutiny.Session session, String cartId) {
+        return session.createSelectionQuery("from CartEntity c left join fetch c.items where c.cartId = :cartId", CartEntity.class)
+                .setParameter("cartId", cartId)
+                .getSingleResultOrNull();
+    }
+    
+    public Uni<Void> persist(Mutiny.Session session, CartEntity cartEntity) {
+        return session.persist(cartEntity);
+    }
+}
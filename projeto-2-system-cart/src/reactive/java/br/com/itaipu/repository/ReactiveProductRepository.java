@@ -0,0 +1,36 @@
+package br.com.itaipu.repository;
+
+import br.com.itaipu.catalog.StockChanged;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+/**
+ * Mesmos comandos condicionais de estoque do {@link ProductRepository}, sobre o Hibernate Reactive.
+ */
+@ApplicationScoped
+public class ReactiveProductRepository {
+    
+    private static final String RETURNING = " returning id, stock, version";
+    
+    // Estoque e versão resultantes, ou null se o estoque for insuficiente
+    public Uni<StockChanged> decrementStock(Mutiny.Session session, Long productId, int quantity) {
+        return update(session, "update products set stock = stock - :quantity, version = version + 1 "
+                + "where id = :id and stock >= :quantity" + RETURNING, productId, quantity);
+    }
+    
+    // Estoque e versão resultantes, ou null se o produto não existir
+    public Uni<StockChanged> incrementStock(Mutiny.Session session, Long productId, int quantity) {
+        return update(session, "update products set stock = stock + :quantity, version = version + 1 where id = :id" + RETURNING,
+                productId, quantity);
+    }
+    
+    private Uni<StockChanged> update(Mutiny.Session session, String sql, Long productId, int quantity) {
+        return session.createNativeQuery(sql, Object[].class)
+                .setParameter("quantity", quantity)
+                .setParameter("id", productId)
+                .getSingleResultOrNull()
+                .map(row -> row == null ? null : new StockChanged(((Number) row[0]).longValue(),
+                        ((Number) row[1]).intValue(), ((Number) row[2]).longValue()));
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.itaipu.repository;
+
+import br.com.itaipu.entity.StockReservationEntity;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+@ApplicationScoped
+public class ReactiveStockReservationRepository {
+    
+    public Uni<StockReservationEntity> findForUpdate(Mutiny.Session session, String cartId, Long productId) {
+        return session.createSelectionQuery("from StockReservationEntity r where r.cartId = :cartId and r.productId = :productId", StockReservationEntity.class)
+                .setParameter("cartId", cartId)
+                .setParameter("productId", productId)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getSingleResultOrNull();
+    }
+}
@@ -0,0 +1,201 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.cache.CartCache;
+import br.com.itaipu.catalog.ProductCatalog;
+import br.com.itaipu.catalog.StockChanged;
+import br.com.itaipu.entity.CartEntity;
+import br.com.itaipu.entity.StockReservationEntity;
+import br.com.itaipu.model.Cart;
+import br.com.itaipu.model.CartState;
+import br.com.itaipu.model.CartStatus;
+import br.com.itaipu.model.Product;
+import br.com.itaipu.repository.ReactiveCartRepository;
+import br.com.itaipu.repository.ReactiveProductRepository;
+import br.com.itaipu.repository.ReactiveStockReservationRepository;
+import io.quarkus.arc.profile.IfBuildProfile;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Operações mais frequentes do carrinho sobre o Hibernate Reactive e o cliente
+ * reativo do Postgres: nenhuma requisição ocupa uma thread de worker nem uma
+ * conexão JDBC enquanto espera o banco. As regras de montagem são as mesmas do
+ * {@link CartService}, via {@link CartAssembler}.
+ * <p>
+ * Sem transação JTA, os observadores {@code AFTER_SUCCESS} (cache e catálogo) são
+ * notificados assim que o evento é disparado; por isso os eventos só são
+ * disparados depois que a transação reativa termina com sucesso.
+ */
+@ApplicationScoped
+@IfBuildProfile("reactive")
+public class ReactiveCartService {
+
+    @Inject
+    Mutiny.SessionFactory sessionFactory;
+
+    @Inject
+    ReactiveCartRepository cartRepository;
+
+    @Inject
+    ReactiveProductRepository productRepository;
+
+    @Inject
+    ReactiveStockReservationRepository reservationRepository;
+
+    @Inject
+    ProductCatalog productCatalog;
+
+    @Inject
+    CartAssembler cartAssembler;
+
+    @Inject
+    CartCache cartCache;
+
+    @Inject
+    Event<CartState> cartChanged;
+
+    @Inject
+    Event<StockChanged> stockChanged;
+
+    @ConfigProperty(name = "cart.reservation.ttl", defaultValue = "PT30M")
+    Duration reservationTtl;
+
+    public Uni<Cart> createCart() {
+        CartEntity cartEntity = new CartEntity();
+        cartEntity.cartId = UUID.randomUUID().toString();
+        cartEntity.totalPrice = BigDecimal.ZERO;
+        cartEntity.defaultCurrency = "BRL";
+
+        return sessionFactory.withTransaction(session -> cartRepository.persist(session, cartEntity)
+                        .chain(() -> touch(session, cartEntity)))
+                .chain(state -> publish(state, List.of()));
+    }
+
+    public Uni<Cart> getCart(String cartId, String currencies) {
+        return Uni.createFrom().deferred(() -> {
+            List<String> targets = cartAssembler.parseCurrencies(currencies);
+            CartState cached = cartCache.get(cartId);
+            Uni<CartState> state = cached != null
+                    ? Uni.createFrom().item(cached)
+                    : sessionFactory.withSession(session -> findCart(session, cartId))
+                            .map(cartEntity -> {
+                                CartState loaded = cartAssembler.toState(cartEntity);
+                                cartCache.populate(loaded);
+                                return loaded;
+                            });
+            return state.chain(loaded -> cartAssembler.toCartAsync(loaded, targets));
+        });
+    }
+
+    public Uni<Cart> addItem(String cartId, Long productId, Integer quantity) {
+        return Uni.createFrom().deferred(() -> {
+            if (quantity == null || quantity <= 0) {
+                throw new WebApplicationException("Quantidade inválida", 400);
+            }
+
+            List<StockChanged> stockChanges = new ArrayList<>();
+            return sessionFactory.withTransaction(session -> findCart(session, cartId)
+                            .invoke(this::ensureOpen)
+                            .chain(cartEntity -> {
+                                Product product = productCatalog.get(productId);
+                                if (product == null) {
+                                    throw new WebApplicationException("Produto não encontrado", 404);
+                                }
+                                int reservedQuantity = cartAssembler.applyAdd(cartEntity, product, quantity);
+                                cartAssembler.recalculateTotal(cartEntity);
+                                return reserve(session, cartId, productId, reservedQuantity, stockChanges)
+                                        .chain(() -> touch(session, cartEntity));
+                            }))
+                    .chain(state -> publish(state, stockChanges));
+        });
+    }
+
+    public Uni<Cart> removeItem(String cartId, Long productId) {
+        List<StockChanged> stockChanges = new ArrayList<>();
+        return sessionFactory.withTransaction(session -> findCart(session, cartId)
+                        .invoke(this::ensureOpen)
+                        .chain(cartEntity -> {
+                            cartEntity.items.removeIf(item -> item.productId.equals(productId));
+                            cartAssembler.recalculateTotal(cartEntity);
+                            return reserve(session, cartId, productId, 0, stockChanges)
+                                    .chain(() -> touch(session, cartEntity));
+                        }))
+                .chain(state -> publish(state, stockChanges));
+    }
+
+    private Uni<CartEntity> findCart(Mutiny.Session session, String cartId) {
+        return cartRepository.findByCartId(session, cartId)
+                .onItem().ifNull().failWith(() -> new WebApplicationException("Carrinho não encontrado", 404));
+    }
+
+    private void ensureOpen(CartEntity cartEntity) {
+        if (cartEntity.status != CartStatus.OPEN) {
+            throw new WebApplicationException("Carrinho já finalizado", 409);
+        }
+    }
+
+    // Mesma regra do StockReservationService.tryReserve: só a diferença passa pelo estoque do produto
+    private Uni<Void> reserve(Mutiny.Session session, String cartId, Long productId, int quantity, List<StockChanged> stockChanges) {
+        return reservationRepository.findForUpdate(session, cartId, productId)
+                .chain(reservation -> {
+                    int reserved = reservation == null ? 0 : reservation.quantity;
+                    int delta = quantity - reserved;
+
+                    Uni<StockChanged> stock;
+                    if (delta > 0) {
+                        stock = productRepository.decrementStock(session, productId, delta);
+                    } else if (delta < 0) {
+                        stock = productRepository.incrementStock(session, productId, -delta);
+                    } else {
+                        stock = Uni.createFrom().nullItem();
+                    }
+
+                    return stock.chain(change -> {
+                        if (delta > 0 && change == null) {
+                            return Uni.createFrom().failure(new WebApplicationException("Estoque insuficiente", 400));
+                        }
+                        if (change != null) {
+                            stockChanges.add(change);
+                        }
+                        if (quantity <= 0) {
+                            return reservation == null ? Uni.createFrom().voidItem() : session.remove(reservation);
+                        }
+                        if (reservation != null) {
+                            reservation.quantity = quantity;
+                            reservation.expiresAt = LocalDateTime.now().plus(reservationTtl);
+                            return Uni.createFrom().voidItem();
+                        }
+                        StockReservationEntity created = new StockReservationEntity();
+                        created.cartId = cartId;
+                        created.productId = productId;
+                        created.quantity = quantity;
+                        created.expiresAt = LocalDateTime.now().plus(reservationTtl);
+                        return session.persist(created);
+                    });
+                });
+    }
+
+    // Marca a atividade do carrinho ainda dentro da transação e captura o estado, já com a nova versão
+    private Uni<CartState> touch(Mutiny.Session session, CartEntity cartEntity) {
+        cartEntity.updatedAt = LocalDateTime.now();
+        return session.flush().replaceWith(() -> cartAssembler.toState(cartEntity));
+    }
+
+    private Uni<Cart> publish(CartState state, List<StockChanged> stockChanges) {
+        stockChanges.forEach(stockChanged::fire);
+        cartChanged.fire(state);
+        return cartAssembler.toCartAsync(state, cartAssembler.defaultCurrencies());
+    }
+}
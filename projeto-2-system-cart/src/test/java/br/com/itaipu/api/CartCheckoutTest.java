@@ -0,0 +1,194 @@
+package br.com.itaipu.api;
+
+import br.com.itaipu.entity.CartEntity;
+import br.com.itaipu.model.CartItem;
+import br.com.itaipu.model.CartStatus;
+import br.com.itaipu.model.Order;
+import br.com.itaipu.repository.CartRepository;
+import br.com.itaipu.repository.ProductRepository;
+import br.com.itaipu.repository.StockReservationRepository;
+import br.com.itaipu.service.CheckoutService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class CartCheckoutTest {
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    StockReservationRepository reservationRepository;
+
+    @Inject
+    CartRepository cartRepository;
+
+    @Inject
+    CheckoutService checkoutService;
+
+    @Test
+    void checkoutConsumesReservations() {
+        long productId = createProduct(5);
+        String cartId = createCart();
+        long version = addItem(cartId, productId, 2);
+
+        checkout(cartId, version)
+                .then()
+                .statusCode(201)
+                .body("cartId", equalTo(cartId));
+
+        assertEquals(3, stockOf(productId));
+        assertEquals(0, reservationCount(cartId));
+        assertEquals(CartStatus.CHECKED_OUT, statusOf(cartId));
+    }
+
+    @Test
+    void insufficientStockLeavesCartOpen() {
+        long productId = createProduct(2);
+        String cartId = createCart();
+        long version = addItem(cartId, productId, 2);
+        // Reserva expirada cujas unidades já foram vendidas: o checkout precisa retirá-las de um estoque zerado
+        QuarkusTransaction.requiringNew().run(() -> reservationRepository.deleteByCartIds(List.of(cartId)));
+
+        checkout(cartId, version)
+                .then()
+                .statusCode(409);
+
+        assertEquals(0, stockOf(productId));
+        assertEquals(CartStatus.OPEN, statusOf(cartId));
+    }
+
+    @Test
+    void staleIfMatchIsRejected() {
+        long productId = createProduct(5);
+        String cartId = createCart();
+        long version = addItem(cartId, productId, 1);
+
+        checkout(cartId, version - 1)
+                .then()
+                .statusCode(412);
+
+        assertEquals(4, stockOf(productId));
+        assertEquals(1, reservationCount(cartId));
+        assertEquals(CartStatus.OPEN, statusOf(cartId));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        long productId = createProduct(40);
+        List<String> cartIds = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String cartId = createCart();
+            addItem(cartId, productId, 1);
+            cartIds.add(cartId);
+        }
+        // Metade dos carrinhos perde a reserva e só restam 8 unidades livres: esses disputam o estoque no checkout
+        List<String> expired = cartIds.subList(0, 20);
+        QuarkusTransaction.requiringNew().run(() -> {
+            reservationRepository.deleteByCartIds(expired);
+            productRepository.update("stock = ?1 where id = ?2", 8, productId);
+        });
+        int available = 8 + 20;
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (String cartId : cartIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        Order order = checkoutService.checkout(cartId, "BRL", null);
+                        return order.items().stream().mapToInt(CartItem::quantity).sum();
+                    } catch (WebApplicationException e) {
+                        assertEquals(409, e.getResponse().getStatus());
+                        return 0;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int ordered = 0;
+            for (Future<Integer> future : futures) {
+                ordered += future.get();
+            }
+            int remaining = stockOf(productId);
+
+            assertEquals(0, remaining);
+            assertEquals(available, remaining + ordered);
+        } finally {
+            executor.shutdownNow();
+        }
+        for (String cartId : cartIds.subList(20, 40)) {
+            assertEquals(CartStatus.CHECKED_OUT, statusOf(cartId));
+        }
+    }
+
+    private long createProduct(int stock) {
+        Number id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\":\"Produto do checkout\",\"price\":10.00,\"category\":\"Testes\",\"stock\":" + stock + ",\"currency\":\"BRL\"}")
+                .post("/api/products")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+        return id.longValue();
+    }
+
+    private String createCart() {
+        return given()
+                .post("/api/cart")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+    }
+
+    private long addItem(String cartId, long productId, int quantity) {
+        Number version = given()
+                .queryParam("productId", productId)
+                .queryParam("quantity", quantity)
+                .post("/api/cart/{cartId}/items", cartId)
+                .then()
+                .statusCode(200)
+                .extract().path("version");
+        return version.longValue();
+    }
+
+    // Só BRL, a moeda do carrinho: o checkout não depende da api-moedas
+    private io.restassured.response.Response checkout(String cartId, long version) {
+        return given()
+                .queryParam("currencies", "BRL")
+                .header("If-Match", "\"" + version + "\"")
+                .post("/api/cart/{cartId}/checkout", cartId);
+    }
+
+    private int stockOf(long productId) {
+        return QuarkusTransaction.requiringNew().call(() -> productRepository.findById(productId).stock);
+    }
+
+    private long reservationCount(String cartId) {
+        return QuarkusTransaction.requiringNew().call(() -> reservationRepository.count("cartId", cartId));
+    }
+
+    private CartStatus statusOf(String cartId) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            CartEntity cart = cartRepository.findByCartId(cartId);
+            return cart.status;
+        });
+    }
+}
@@ -0,0 +1,383 @@
+package br.com.itaipu.eventlog;
+
+import br.com.itaipu.cache.CartCache;
+import br.com.itaipu.catalog.ProductCatalog;
+import br.com.itaipu.entity.CartSnapshotEntity;
+import br.com.itaipu.model.CartItem;
+import br.com.itaipu.model.CartState;
+import br.com.itaipu.model.CartStatus;
+import br.com.itaipu.repository.CartEventRepository;
+import br.com.itaipu.repository.CartRepository;
+import br.com.itaipu.repository.CartSnapshotRepository;
+import br.com.itaipu.repository.ProductRepository;
+import br.com.itaipu.repository.StockReservationRepository;
+import br.com.itaipu.service.CartService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Carrinhos com {@code cart.events.enabled=true}: reconstrução a partir do snapshot,
+ * controle de versão pelo log e checkout de um carrinho reconstruído dos eventos.
+ */
+@QuarkusTest
+@TestProfile(EventSourcedCartTest.EventsEnabled.class)
+class EventSourcedCartTest {
+
+    // Com um evento por snapshot, a versão que o checkout avança fora do log manteria o carrinho no lote
+    private static final int SNAPSHOT_EVERY = 1;
+    private static final int OK = 200;
+
+    // Snapshots só quando o teste pede, para que o agendador não interfira nas asserções
+    public static class EventsEnabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "cart.events.enabled", "true",
+                    "cart.events.snapshot-every", String.valueOf(SNAPSHOT_EVERY),
+                    "cart.events.snapshot-interval", "off");
+        }
+    }
+
+    @Inject
+    CartService cartService;
+
+    @Inject
+    CartEventLog cartEventLog;
+
+    @Inject
+    CartCache cartCache;
+
+    @Inject
+    ProductCatalog productCatalog;
+
+    @Inject
+    CartRepository cartRepository;
+
+    @Inject
+    CartEventRepository eventRepository;
+
+    @Inject
+    CartSnapshotRepository snapshotRepository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    StockReservationRepository reservationRepository;
+
+    @Test
+    void replaysFromSnapshotAndLaterEvents() {
+        long first = createProduct(new BigDecimal("10.00"), 20);
+        long second = createProduct(new BigDecimal("4.50"), 20);
+        String cartId = createCart();
+        long version = addItem(cartId, first, 2, null);
+        version = addItem(cartId, second, 1, version);
+        version = updateQuantity(cartId, first, 5, version);
+        version = removeItem(cartId, second, version);
+        assertEquals(4, version);
+
+        QuarkusTransaction.requiringNew().run(() -> cartEventLog.snapshot(cartId));
+        assertEquals(4, snapshotOf(cartId).version);
+
+        version = addItem(cartId, second, 2, version);
+        version = addItem(cartId, first, 1, version);
+        assertEquals(6, version);
+        // Só os eventos posteriores ao snapshot precisam ser reaplicados
+        assertEquals(2, QuarkusTransaction.requiringNew().call(() -> eventRepository.findAfter(cartId, 4).size()));
+
+        // Sem o cache, a leitura reconstrói o carrinho do snapshot e dos dois eventos seguintes
+        cartCache.invalidate(cartId);
+        Number total = given()
+                .queryParam("currencies", "BRL")
+                .get("/api/cart/{cartId}", cartId)
+                .then()
+                .statusCode(200)
+                .header("ETag", "\"6\"")
+                .body("version", equalTo(6))
+                .body("items.size()", equalTo(2))
+                .extract().path("totalPrice");
+        assertEquals(0, new BigDecimal("69.00").compareTo(new BigDecimal(total.toString())));
+
+        // O mesmo estado da reconstrução a partir do primeiro evento
+        CartState fromSnapshot = load(cartId);
+        QuarkusTransaction.requiringNew().run(() -> snapshotRepository.deleteByCartIds(List.of(cartId)));
+        CartState fromScratch = load(cartId);
+        assertEquals(fromScratch.version(), fromSnapshot.version());
+        assertEquals(quantities(fromScratch), quantities(fromSnapshot));
+        assertEquals(Map.of(first, 6, second, 2), quantities(fromSnapshot));
+        assertEquals(0, fromScratch.totalPrice().compareTo(fromSnapshot.totalPrice()));
+    }
+
+    @Test
+    void checkedOutCartLeavesTheSnapshotQueue() {
+        long productId = createProduct(new BigDecimal("10.00"), 10);
+        String cartId = createCart();
+        long version = addItem(cartId, productId, 1, null);
+        checkout(cartId, version).then().statusCode(201);
+        assertTrue(isStale(cartId));
+
+        // O checkout avança a versão da linha sem gravar evento: depois do snapshot o carrinho não volta ao lote
+        QuarkusTransaction.requiringNew().run(() -> cartEventLog.snapshot(cartId));
+
+        assertEquals(version, snapshotOf(cartId).version);
+        assertFalse(isStale(cartId));
+    }
+
+    @Test
+    void staleIfMatchIsRejected() {
+        long productId = createProduct(new BigDecimal("10.00"), 10);
+        String cartId = createCart();
+        long version = addItem(cartId, productId, 1, null);
+
+        given()
+                .queryParam("productId", productId)
+                .queryParam("quantity", 1)
+                .header("If-Match", "\"" + (version - 1) + "\"")
+                .post("/api/cart/{cartId}/items", cartId)
+                .then()
+                .statusCode(412);
+
+        assertEquals(1, eventCount(cartId));
+        assertEquals(9, stockOf(productId));
+    }
+
+    @Test
+    void writeFromStaleCacheIsRejectedAndRetried() {
+        long productId = createProduct(new BigDecimal("10.00"), 10);
+        String cartId = createCart();
+        long version = addItem(cartId, productId, 1, null);
+
+        // Outra instância grava um evento: o cache desta ainda está na versão anterior
+        QuarkusTransaction.requiringNew().run(() -> {
+            CartProjection other = CartProjection.of(cartEventLog.load(cartRepository.findByCartId(cartId)));
+            cartEventLog.record(other, CartEventLog.itemAdded(productCatalog.get(productId), 1));
+            cartEventLog.save(other);
+        });
+        assertEquals(version, cartCache.get(cartId).version());
+
+        given()
+                .queryParam("productId", productId)
+                .queryParam("quantity", 1)
+                .post("/api/cart/{cartId}/items", cartId)
+                .then()
+                .statusCode(409);
+
+        // O 409 descarta a entrada do cache: a nova tentativa parte do log
+        given()
+                .queryParam("productId", productId)
+                .queryParam("quantity", 1)
+                .post("/api/cart/{cartId}/items", cartId)
+                .then()
+                .statusCode(200)
+                .body("version", equalTo((int) version + 2))
+                .body("items[0].quantity", equalTo(3));
+        assertEquals(3, eventCount(cartId));
+        assertEquals(7, stockOf(productId));
+    }
+
+    @Test
+    void parallelWritesWithSameIfMatchApplyOncePerCart() throws Exception {
+        long productId = createProduct(new BigDecimal("10.00"), 100);
+        List<String> cartIds = new ArrayList<>();
+        Map<String, Long> versions = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            String cartId = createCart();
+            cartIds.add(cartId);
+            versions.put(cartId, cartService.getCartVersion(cartId));
+        }
+
+        List<Callable<Integer>> adds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            for (String cartId : cartIds) {
+                adds.add(() -> {
+                    cartService.addItem(cartId, productId, 1, versions.get(cartId));
+                    return OK;
+                });
+            }
+        }
+        List<Integer> statuses = runInParallel(adds);
+
+        assertEquals(10, statuses.stream().filter(status -> status == OK).count());
+        assertTrue(statuses.stream().allMatch(status -> Set.of(OK, 409, 412).contains(status)));
+        for (String cartId : cartIds) {
+            assertEquals(1, eventCount(cartId));
+        }
+        assertEquals(90, stockOf(productId));
+    }
+
+    @Test
+    void checkoutOfEventSourcedCart() {
+        long first = createProduct(new BigDecimal("10.00"), 10);
+        long second = createProduct(new BigDecimal("2.50"), 10);
+        String cartId = createCart();
+        long version = addItem(cartId, first, 2, null);
+        version = addItem(cartId, second, 4, version);
+        version = addItem(cartId, first, 1, version);
+        QuarkusTransaction.requiringNew().run(() -> cartEventLog.snapshot(cartId));
+        version = updateQuantity(cartId, second, 2, version);
+        cartCache.invalidate(cartId);
+
+        Number total = checkout(cartId, version)
+                .then()
+                .statusCode(201)
+                .body("cartId", equalTo(cartId))
+                .body("items.size()", equalTo(2))
+                .extract().path("totalPrice");
+
+        assertEquals(0, new BigDecimal("35.00").compareTo(new BigDecimal(total.toString())));
+        assertEquals(7, stockOf(first));
+        assertEquals(8, stockOf(second));
+        assertEquals(0, (long) QuarkusTransaction.requiringNew().call(() -> reservationRepository.count("cartId", cartId)));
+        assertEquals(CartStatus.CHECKED_OUT, QuarkusTransaction.requiringNew().call(() -> cartRepository.findByCartId(cartId).status));
+        // O checkout não grava evento, e o carrinho finalizado não aceita novos
+        assertEquals(4, eventCount(cartId));
+        given()
+                .queryParam("productId", first)
+                .queryParam("quantity", 1)
+                .post("/api/cart/{cartId}/items", cartId)
+                .then()
+                .statusCode(409);
+        assertEquals(4, eventCount(cartId));
+    }
+
+    // Libera todas as chamadas ao mesmo tempo; falhas viram o status HTTP da exceção
+    private List<Integer> runInParallel(List<Callable<Integer>> calls) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> call : calls) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return call.call();
+                    } catch (WebApplicationException e) {
+                        return e.getResponse().getStatus();
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get());
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long createProduct(BigDecimal price, int stock) {
+        Number id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\":\"Produto do log\",\"price\":" + price + ",\"category\":\"Testes\",\"stock\":" + stock + ",\"currency\":\"BRL\"}")
+                .post("/api/products")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+        return id.longValue();
+    }
+
+    private String createCart() {
+        return given()
+                .post("/api/cart")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+    }
+
+    private long addItem(String cartId, long productId, int quantity, Long version) {
+        var request = given()
+                .queryParam("productId", productId)
+                .queryParam("quantity", quantity);
+        if (version != null) {
+            request.header("If-Match", "\"" + version + "\"");
+        }
+        Number next = request
+                .post("/api/cart/{cartId}/items", cartId)
+                .then()
+                .statusCode(200)
+                .extract().path("version");
+        return next.longValue();
+    }
+
+    private long updateQuantity(String cartId, long productId, int quantity, long version) {
+        Number next = given()
+                .queryParam("quantity", quantity)
+                .header("If-Match", "\"" + version + "\"")
+                .put("/api/cart/{cartId}/items/{productId}", cartId, productId)
+                .then()
+                .statusCode(200)
+                .extract().path("version");
+        return next.longValue();
+    }
+
+    private long removeItem(String cartId, long productId, long version) {
+        Number next = given()
+                .header("If-Match", "\"" + version + "\"")
+                .delete("/api/cart/{cartId}/items/{productId}", cartId, productId)
+                .then()
+                .statusCode(200)
+                .extract().path("version");
+        return next.longValue();
+    }
+
+    // Só BRL, a moeda do carrinho: o checkout não depende da api-moedas
+    private io.restassured.response.Response checkout(String cartId, long version) {
+        return given()
+                .queryParam("currencies", "BRL")
+                .header("If-Match", "\"" + version + "\"")
+                .post("/api/cart/{cartId}/checkout", cartId);
+    }
+
+    private CartState load(String cartId) {
+        return QuarkusTransaction.requiringNew().call(() -> cartEventLog.load(cartRepository.findByCartId(cartId)));
+    }
+
+    private CartSnapshotEntity snapshotOf(String cartId) {
+        return QuarkusTransaction.requiringNew().call(() -> snapshotRepository.findByCartId(cartId));
+    }
+
+    private boolean isStale(String cartId) {
+        return QuarkusTransaction.requiringNew().call(() ->
+                snapshotRepository.findStale(SNAPSHOT_EVERY, Integer.MAX_VALUE).contains(cartId));
+    }
+
+    private long eventCount(String cartId) {
+        return QuarkusTransaction.requiringNew().call(() -> eventRepository.count("cartId", cartId));
+    }
+
+    private int stockOf(long productId) {
+        return QuarkusTransaction.requiringNew().call(() -> productRepository.findById(productId).stock);
+    }
+
+    private static Map<Long, Integer> quantities(CartState state) {
+        return state.items().stream().collect(Collectors.toMap(CartItem::productId, CartItem::quantity));
+    }
+}
@@ -0,0 +1,197 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.model.Product;
+import br.com.itaipu.repository.ProductRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Adições concorrentes pelo {@link CartService}, com o flush da versão do carrinho e
+ * os 409/412 do caminho real: o estoque nunca fica negativo e as unidades reservadas
+ * são sempre as quantidades dos carrinhos.
+ */
+@QuarkusTest
+class CartServiceConcurrencyTest {
+
+    // Abaixo do máximo do pool de conexões, para que a espera seja pelos locks e não pelo pool
+    private static final int THREADS = 32;
+    private static final int OK = 200;
+
+    @Inject
+    CartService cartService;
+
+    @Inject
+    ProductService productService;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    void parallelAddsToDistinctCartsNeverOversell() throws Exception {
+        Long productId = createProduct(100);
+        List<String> cartIds = createCarts(300);
+
+        List<Callable<Integer>> adds = new ArrayList<>();
+        for (String cartId : cartIds) {
+            adds.add(() -> {
+                cartService.addItem(cartId, productId, 1, null);
+                return OK;
+            });
+        }
+        List<Integer> statuses = runInParallel(adds);
+
+        assertEquals(100, statuses.stream().filter(status -> status == OK).count());
+        assertTrue(statuses.stream().allMatch(status -> status == OK || status == 400));
+        assertEquals(0, stockOf(productId));
+        assertEquals(100, reservedUnits(productId).values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(reservedUnits(productId), cartQuantities(productId));
+    }
+
+    @Test
+    void parallelAddsToSharedCartsKeepReservationsInSync() throws Exception {
+        Long productId = createProduct(150);
+        List<String> cartIds = createCarts(20);
+
+        // 15 adições simultâneas por carrinho: as que perdem a corrida da versão falham com 409
+        List<Callable<Integer>> adds = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            for (String cartId : cartIds) {
+                adds.add(() -> {
+                    cartService.addItem(cartId, productId, 1, null);
+                    return OK;
+                });
+            }
+        }
+        List<Integer> statuses = runInParallel(adds);
+
+        assertTrue(statuses.stream().allMatch(status -> status == OK || status == 409 || status == 400));
+        int stock = stockOf(productId);
+        Map<String, Integer> reserved = reservedUnits(productId);
+        assertTrue(stock >= 0);
+        assertEquals(150, stock + reserved.values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(reserved, cartQuantities(productId));
+        assertEquals(statuses.stream().filter(status -> status == OK).count(),
+                reserved.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void parallelAddsWithSameIfMatchApplyOncePerCart() throws Exception {
+        Long productId = createProduct(100);
+        List<String> cartIds = createCarts(20);
+        Map<String, Long> versions = new HashMap<>();
+        for (String cartId : cartIds) {
+            versions.put(cartId, cartService.getCartVersion(cartId));
+        }
+
+        // Todas as adições de um carrinho enviam a mesma versão: só uma pode ser aplicada
+        List<Callable<Integer>> adds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            for (String cartId : cartIds) {
+                adds.add(() -> {
+                    cartService.addItem(cartId, productId, 1, versions.get(cartId));
+                    return OK;
+                });
+            }
+        }
+        List<Integer> statuses = runInParallel(adds);
+
+        assertEquals(20, statuses.stream().filter(status -> status == OK).count());
+        assertTrue(statuses.stream().allMatch(status -> Set.of(OK, 409, 412).contains(status)));
+        assertEquals(80, stockOf(productId));
+        Map<String, Integer> reserved = reservedUnits(productId);
+        assertEquals(20, reserved.size());
+        assertTrue(reserved.values().stream().allMatch(quantity -> quantity == 1));
+        assertEquals(reserved, cartQuantities(productId));
+    }
+
+    // Libera todas as chamadas ao mesmo tempo; falhas viram o status HTTP da exceção
+    private List<Integer> runInParallel(List<Callable<Integer>> calls) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> call : calls) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return call.call();
+                    } catch (WebApplicationException e) {
+                        return e.getResponse().getStatus();
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get());
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Long createProduct(int stock) {
+        return productService.createProduct(new Product(null, "Produto disputado", null, new BigDecimal("10.00"),
+                "Testes", stock, "BRL")).id();
+    }
+
+    private List<String> createCarts(int count) {
+        List<String> cartIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cartIds.add(cartService.createCart().id());
+        }
+        return cartIds;
+    }
+
+    private int stockOf(Long productId) {
+        return QuarkusTransaction.requiringNew().call(() -> productRepository.findById(productId).stock);
+    }
+
+    // Unidades reservadas do produto por carrinho
+    private Map<String, Integer> reservedUnits(Long productId) {
+        return sumByCart("select r.cartId, sum(r.quantity) from StockReservationEntity r "
+                + "where r.productId = :productId group by r.cartId", productId);
+    }
+
+    // Quantidade do produto nos itens de cada carrinho
+    private Map<String, Integer> cartQuantities(Long productId) {
+        return sumByCart("select i.cart.cartId, sum(i.quantity) from CartItemEntity i "
+                + "where i.productId = :productId group by i.cart.cartId", productId);
+    }
+
+    private Map<String, Integer> sumByCart(String query, Long productId) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Map<String, Integer> sums = new HashMap<>();
+            for (Object[] row : entityManager.createQuery(query, Object[].class)
+                    .setParameter("productId", productId)
+                    .getResultList()) {
+                sums.put((String) row[0], ((Number) row[1]).intValue());
+            }
+            return sums;
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.itaipu.service;
+
+import br.com.itaipu.entity.ProductEntity;
+import br.com.itaipu.repository.ProductRepository;
+import br.com.itaipu.repository.StockReservationRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class StockReservationConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Inject
+    StockReservationService stockReservationService;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    StockReservationRepository reservationRepository;
+
+    @Test
+    void parallelReservationsNeverOversell() throws Exception {
+        Long productId = createProduct(20);
+
+        long reserved = reserveInParallel(productId, 60, 1).stream().filter(ok -> ok).count();
+
+        assertEquals(20, reserved);
+        assertEquals(0, stockOf(productId));
+        assertEquals(20, reservedUnits(productId));
+    }
+
+    @Test
+    void parallelMultiUnitReservationsStayWithinStock() throws Exception {
+        Long productId = createProduct(10);
+
+        long reserved = reserveInParallel(productId, 30, 3).stream().filter(ok -> ok).count();
+
+        assertEquals(3, reserved);
+        int stock = stockOf(productId);
+        assertTrue(stock >= 0);
+        assertEquals(1, stock);
+        assertEquals(10, stock + reservedUnits(productId));
+    }
+
+    // Cada reserva é de um carrinho diferente, na sua própria transação, todas liberadas ao mesmo tempo
+    private List<Boolean> reserveInParallel(Long productId, int reservations, int quantity) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < reservations; i++) {
+                String cartId = UUID.randomUUID().toString();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return QuarkusTransaction.requiringNew().call(() ->
+                            stockReservationService.tryReserve(cartId, productId, quantity));
+                }));
+            }
+            start.countDown();
+
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Long createProduct(int stock) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            ProductEntity product = new ProductEntity();
+            product.name = "Produto disputado";
+            product.price = new BigDecimal("10.00");
+            product.category = "Testes";
+            product.stock = stock;
+            productRepository.persist(product);
+            return product.id;
+        });
+    }
+
+    private int stockOf(Long productId) {
+        return QuarkusTransaction.requiringNew().call(() -> productRepository.findById(productId).stock);
+    }
+
+    private int reservedUnits(Long productId) {
+        return QuarkusTransaction.requiringNew().call(() -> reservationRepository.find("productId", productId)
+                .stream()
+                .mapToInt(reservation -> reservation.quantity)
+                .sum());
+    }
+}